@@ -1,15 +1,49 @@
 package person_registry;
 
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
+import person_registry.dedup.MergeSuggestion;
+import person_registry.dedup.NearDuplicateDetector;
+import person_registry.io.ConflictPolicy;
+import person_registry.io.DuplicateReport;
+import person_registry.io.ExternalMergeSorter;
+import person_registry.io.RegistryFileParser;
+import person_registry.io.RegistryFiles;
+import person_registry.io.RegistryImage;
+import person_registry.io.RegistryImporter;
+import person_registry.io.RejectReason;
+import person_registry.io.RejectReport;
+import person_registry.io.SortOrder;
 import person_registry.model.Person;
+import person_registry.model.PersonRegistry;
+import person_registry.model.event.RegistryChangeEvent;
+import person_registry.model.event.RegistryChangeListener;
+import person_registry.model.helper.PersistentHashMap;
+import person_registry.query.PersonQuery;
+import person_registry.replication.ReplicationClient;
+import person_registry.replication.ReplicationServer;
 
 import java.io.*;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Business logic and GUI handler class.
@@ -22,18 +56,101 @@ public class Controller {
     public TextField nameTextField;
     public TextField numberTextField;
     public TextField emailTextField;
+    public TextField queryTextField;
+    public TableView<Person> personTable;
+    public TableColumn<Person, String> nameColumn;
+    public TableColumn<Person, String> phoneNumberColumn;
+    public TableColumn<Person, String> emailColumn;
+    public ChoiceBox<ConflictPolicy> conflictPolicyChoiceBox;
+    public ChoiceBox<SortOrder> sortOrderChoiceBox;
+    public Label replicationStatusLabel;
+
+    /**
+     * Number of people processed from a file before they are shown in the table together.
+     */
+    private static final int TABLE_UPDATE_BATCH_SIZE = 10_000;
+
+    /**
+     * Estimated average length of a registry file line, used to estimate the number of people in a file.
+     */
+    private static final int ESTIMATED_LINE_LENGTH = 40;
+
+    /**
+     * Estimated compression ratio of a gzip compressed registry file, used to estimate the number of people in a file.
+     */
+    private static final int ESTIMATED_COMPRESSION_RATIO = 5;
+
+    /**
+     * Maximum number of merge suggestions printed to the output.
+     */
+    private static final int PRINTED_MERGE_SUGGESTIONS = 50;
 
     String firstLine = "Name:Number,Email";
     String nameNumberSeparator = ":";
     String numberEmailSeparator = ",";
 
-    Map<String, Person> personRegistry;
+    String registrySourcePath;
+    long registrySourceLastModified;
+
+    PersonRegistry personRegistry;
+    ObservableList<Person> personTableItems;
+    PersonTableRows personTableRows;
+
+    private Map<TableColumn<Person, ?>, Comparator<Person>> columnOrders;
+    private int tableSortRequests;
+
+    private Thread registryImageLoader;
+
+    private ReplicationServer replicationServer;
+    private ReplicationClient replicationClient;
+    private ScheduledExecutorService replicationStatusUpdater;
 
     /**
      * Class constructor that instantiates the registry in the memory.
      */
     public Controller() {
-        personRegistry = new ConcurrentHashMap<>();
+        personRegistry = new PersonRegistry();
+        personTableItems = FXCollections.observableArrayList();
+        personTableRows = new PersonTableRows(personTableItems);
+    }
+
+    /**
+     * Replaces the registry with an empty persistent registry, that keeps its versions for undo and redo.
+     * It has to be called before the registry is loaded.
+     *
+     * @see PersonRegistry#PersonRegistry(boolean)
+     */
+    void usePersistentRegistry() {
+        personRegistry = new PersonRegistry(true);
+    }
+
+    /**
+     * Connects the table of people to the registry after the GUI is loaded.
+     * The table only renders the visible rows, so it stays responsive with a huge registry.
+     * The columns read the people through typed getters, and the table is sorted on a background thread.
+     */
+    @FXML
+    public void initialize() {
+        personTable.setItems(personTableItems);
+
+        nameColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getName()));
+        phoneNumberColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getPhoneNumber()));
+        emailColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getEmail()));
+
+        columnOrders = new HashMap<>();
+        columnOrders.put(nameColumn, PersonTableRows.NAME_ORDER);
+        columnOrders.put(phoneNumberColumn, PersonTableRows.PHONE_ORDER);
+        columnOrders.put(emailColumn, PersonTableRows.EMAIL_ORDER);
+        personTable.setSortPolicy(table -> {
+            sortTable();
+            return true;
+        });
+
+        conflictPolicyChoiceBox.getItems().setAll(ConflictPolicy.values());
+        conflictPolicyChoiceBox.setValue(ConflictPolicy.LAST_MODIFIED_WINS);
+
+        sortOrderChoiceBox.getItems().setAll(SortOrder.values());
+        sortOrderChoiceBox.setValue(SortOrder.UNSORTED);
     }
 
     /* ************************************
@@ -62,6 +179,29 @@ public class Controller {
         new Thread(() -> interruptableFileProcess(finalPath)).start();
     }
 
+    /**
+     * Handles user request to import every registry file from a directory or matching a glob pattern.
+     * If no path is provided, an error message is printed.
+     *
+     * The import logic is on a new thread, that checks for interruption.
+     *
+     * @param actionEvent Not used.
+     */
+    public void handleImportButtonAction(ActionEvent actionEvent) {
+        String path;
+
+        if(registryFilePath.getText() == null || (path = registryFilePath.getText()).trim().isEmpty()) {
+            logException("No registry directory or glob pattern provided, can't import files.");
+            return;
+        }
+
+        ConflictPolicy conflictPolicy = conflictPolicyChoiceBox.getValue();
+        logInfo("Importing registry files from '" + path + "', conflict policy: " + conflictPolicy);
+
+        String finalPath = path;
+        new Thread(() -> interruptableFilesImport(finalPath, conflictPolicy)).start();
+    }
+
     /**
      * Handles user request to save the registry to a file.
      * If no path is provided, an error message is printed.
@@ -77,10 +217,11 @@ public class Controller {
             logException("No registry file path provided, can't save registry to file.");
             return;
         }
-        logInfo("Saving registry to file: '" + path + "'");
+        SortOrder sortOrder = sortOrderChoiceBox.getValue();
+        logInfo("Saving registry to file: '" + path + "', order: " + sortOrder);
 
         String finalPath = path;
-        new Thread(()-> interruptableFileSave(finalPath)).start();
+        new Thread(()-> interruptableFileSave(finalPath, sortOrder)).start();
     }
 
     /**
@@ -111,15 +252,21 @@ public class Controller {
                 logInfo("No update is needed to the person in registry");
             }
 
-            String finalName = name;
-            Platform.runLater(() -> processingOutput.appendText(personRegistry.get(finalName).toString()));
+            Person person = personRegistry.get(name);
+            Platform.runLater(() -> {
+                processingOutput.appendText(person.toString());
+                updateTable(Collections.singletonList(person), Collections.emptySet());
+            });
         } else {
             logInfo("New person added to registry");
 
             Person person = new Person(name, numberTextField.getText(), emailTextField.getText());
             personRegistry.put(person.getName(), person);
             Platform.runLater(() -> processingOutput.appendText(person.toString()));
+            showPeopleInTable(Collections.singletonList(person), Collections.emptySet());
         }
+
+        personRegistry.commitVersion();
     }
 
     /**
@@ -144,11 +291,157 @@ public class Controller {
         if(personRegistry.get(name) != null) {
             logInfo("Person named '" + name + "' is deleted from registry");
             personRegistry.remove(name);
+            personRegistry.commitVersion();
+            showPeopleInTable(Collections.emptySet(), Collections.singleton(name));
         } else {
             logException("Person named '" + name + "' is not in the registry");
         }
     }
 
+    /**
+     * Handles user request to undo the last modification of the registry, like the processing of a file.
+     * It is only available, if the registry is persistent.
+     *
+     * @param actionEvent Not used.
+     */
+    public void handleUndoButtonAction(ActionEvent actionEvent) {
+        if(!personRegistry.isPersistent()) {
+            logException("Undo is only available if the application is started with the --persistent parameter");
+            return;
+        }
+
+        PersistentHashMap<String, Person> currentVersion = personRegistry.snapshot();
+        if(personRegistry.undo()) {
+            showVersionChangesInTable(currentVersion, personRegistry.snapshot());
+            logInfo("Last modification undone, " + personRegistry.size() + " people in the registry");
+        } else {
+            logException("There is no modification to undo");
+        }
+    }
+
+    /**
+     * Handles user request to redo the last undone modification of the registry.
+     * It is only available, if the registry is persistent.
+     *
+     * @param actionEvent Not used.
+     */
+    public void handleRedoButtonAction(ActionEvent actionEvent) {
+        if(!personRegistry.isPersistent()) {
+            logException("Redo is only available if the application is started with the --persistent parameter");
+            return;
+        }
+
+        PersistentHashMap<String, Person> currentVersion = personRegistry.snapshot();
+        if(personRegistry.redo()) {
+            showVersionChangesInTable(currentVersion, personRegistry.snapshot());
+            logInfo("Last undone modification redone, " + personRegistry.size() + " people in the registry");
+        } else {
+            logException("There is no modification to redo");
+        }
+    }
+
+    /**
+     * Handles user request to find people in the registry, that are probably the same person with a slightly different name.
+     * The most likely duplicates are printed to the output, the registry is not modified.
+     *
+     * The detection is on a new thread. If the registry is still loaded from an image, it waits until every person is loaded.
+     *
+     * @param actionEvent Not used.
+     *
+     * @see NearDuplicateDetector
+     */
+    public void handleFindDuplicatesButtonAction(ActionEvent actionEvent) {
+        logInfo("Looking for near-duplicate people in the registry");
+
+        new Thread(() -> {
+            if(!awaitWholeRegistry("Finding duplicates")) {
+                return;
+            }
+
+            NearDuplicateDetector detector = new NearDuplicateDetector();
+            List<MergeSuggestion> suggestions = detector.findDuplicates(personRegistry.values());
+
+            StringBuilder message = new StringBuilder(suggestions.size() + " possible duplicates found");
+            if(detector.getWindowedBlocks() > 0) {
+                message.append(", ").append(detector.getWindowedBlocks()).append(" too common keys compared by name order");
+            }
+            for(MergeSuggestion suggestion : suggestions.subList(0, Math.min(suggestions.size(), PRINTED_MERGE_SUGGESTIONS))) {
+                message.append("\n\t").append(suggestion);
+            }
+
+            logInfo(message.toString());
+        }).start();
+    }
+
+    /**
+     * Handles user request to query the registry, like "phone:0630 email:gmail.com".
+     * The matching people are shown in the table, or only their number is printed for a "count" query.
+     * An empty query shows the whole registry in the table again.
+     *
+     * The query runs on a new thread, as a parallel scan of the registry.
+     * If the registry is still loaded from an image, it waits until every person is loaded.
+     * The table shows the matching rows of the whole registry through a filter, so it follows the later modifications.
+     *
+     * @param actionEvent Not used.
+     *
+     * @see PersonQuery#parse(String)
+     */
+    public void handleQueryButtonAction(ActionEvent actionEvent) {
+        String text = queryTextField.getText();
+
+        if(text == null || text.trim().isEmpty()) {
+            personTable.setItems(personTableItems);
+            logInfo("No query provided, the whole registry is shown");
+            return;
+        }
+
+        PersonQuery query;
+        try {
+            query = PersonQuery.parse(text);
+        } catch (IllegalArgumentException e) {
+            logException(e.getMessage() + ", known conditions: name:, phone:, email:, limit:, count");
+            return;
+        }
+
+        new Thread(() -> {
+            if(!awaitWholeRegistry("The query")) {
+                return;
+            }
+
+            if(query.isCountOnly()) {
+                logInfo(query.count(personRegistry.values()) + " people match the query '" + text + "'");
+                return;
+            }
+
+            List<Person> result = query.find(personRegistry.values());
+            Predicate<Person> shownPeople = getShownPeople(query, result);
+            Platform.runLater(() -> personTable.setItems(new FilteredList<>(personTableItems, shownPeople)));
+            logInfo(result.size() + " people match the query '" + text + "', run an empty query to show the whole registry");
+        }).start();
+    }
+
+    /**
+     * Returns the filter of the table rows, that shows the result of a query.
+     * If the limit of the query was not reached, every matching person is shown, including the ones added later.
+     * Otherwise only the people of the result are shown, while they match the query.
+     *
+     * @param query the query that was run
+     * @param result the people found by the query
+     * @return decides whether a row of the table is shown
+     */
+    private static Predicate<Person> getShownPeople(PersonQuery query, List<Person> result) {
+        if(result.size() < query.getLimit()) {
+            return query::test;
+        }
+
+        Set<String> resultNames = new HashSet<>();
+        for(Person person : result) {
+            resultNames.add(person.getName());
+        }
+
+        return person -> resultNames.contains(person.getName()) && query.test(person);
+    }
+
     /* ************************************
      * File handler methods
      * ************************************/
@@ -156,75 +449,151 @@ public class Controller {
     /**
      * Opens the file at the given path.
      * If the file can be opened, it tries to parse every non-empty line to a Person.
+     * A gzip compressed file is decompressed on the fly.
      * The only exception is the first non-empty line, that should look something like: "Name: Number, Email".
      * Each successfully parsed person is added to the registry.
+     * The people are shown in the table in batches, so the GUI is not flooded with updates.
+     *
+     * If a name is found on more than one line, the earlier values are overwritten.
+     * These lines are reported to a ".duplicates" file next to the processed file.
+     * The malformed lines and the lines with invalid data are reported to a ".rejects" file,
+     * only their numbers are shown on the GUI.
      *
      * @param path the absolute path of the file to be processed
+     *
+     * @see DuplicateReport
+     * @see RejectReport
      */
     private void interruptableFileProcess(String path){
-        try (BufferedReader reader = new BufferedReader(new FileReader(new File(path)))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.isEmpty()) {
-                    if(line.toLowerCase().contains("name")) {
-                        firstLine = line;
-                        break;
-                    } else {
-                        logException("First non-empty line doesn't match expected.\n\tFirst line in file: " + line + "\n\tExpected structure: " + firstLine
-                                + "\n\tFile can't be processed.");
-                        return;
-                    }
-                }
-            }
+        PersonTableBatcher tableBatcher = new PersonTableBatcher();
+        File file = new File(path);
 
-            declareSeparatorCharacters();
+        try (BufferedReader reader = RegistryFiles.openReader(file);
+             DuplicateReport duplicateReport = createDuplicateReport(file);
+             RejectReport rejectReport = new RejectReport(Paths.get(path + ".rejects"))) {
+            RegistryFileParser parser = new RegistryFileParser(firstLine, this::logException, rejectReport);
+            if(!parser.readFirstLine(reader)) {
+                return;
+            }
 
-            while ((line = reader.readLine()) != null) {
-                if(Thread.currentThread().isInterrupted()){
-                    logException("Interruption occurred while processing registry file");
-                    return;
-                }
+            firstLine = parser.getFirstLine();
+            nameNumberSeparator = parser.getNameNumberSeparator();
+            numberEmailSeparator = parser.getNumberEmailSeparator();
+            registrySourcePath = path;
+            registrySourceLastModified = file.lastModified();
 
-                if(line.isEmpty())
-                    continue;
+            int processedPeople = parser.readPeople(reader, (person, lineNumber) -> {
+                Person previous = personRegistry.put(person.getName(), person);
+                duplicateReport.check(lineNumber, person, previous);
+                tableBatcher.add(person);
+            });
 
-                Person person = processLine(line);
-                if (person != null) {
-                    personRegistry.put(person.getName(), person);
-                    Platform.runLater(() -> processingOutput.appendText("\n" + person.toString()));
-                } else {
-                    logException("Could not create a Person object based on line '" + line + "'");
-                }
+            logInfo(processedPeople + " people processed from '" + path + "'");
+            if(duplicateReport.getDuplicateCount() > 0) {
+                logInfo(duplicateReport.getDuplicateCount() + " lines overwrote an earlier person with the same name, see '"
+                        + duplicateReport.getReportPath() + "'");
             }
+            logRejectCounts(rejectReport.getRejectCounts(), "'" + rejectReport.getReportPath() + "'");
+        } catch (InterruptedIOException e) {
+            logException(e.getMessage());
         } catch (IOException e) {
             logException("Exception occurred during processing the file");
+        } finally {
+            tableBatcher.flush();
+            Platform.runLater(this::sortTable);
+            personRegistry.commitVersion();
+        }
+    }
+
+    /**
+     * Creates the duplicate report of a file, that tells the people of the file from the people already in the registry.
+     * A persistent registry is looked up in its current version, and an empty registry needs no lookup.
+     * A non-empty concurrent registry can't be seen as it was, so the report remembers the people parsed from the file.
+     *
+     * @param file the processed file
+     * @return the duplicate report next to the file
+     * @throws IOException if an earlier report can't be deleted
+     */
+    private DuplicateReport createDuplicateReport(File file) throws IOException {
+        Path reportPath = Paths.get(file.getPath() + ".duplicates");
+        long expectedPeople = estimatePeopleInFile(file);
+
+        if(personRegistry.isPersistent()) {
+            return new DuplicateReport(reportPath, expectedPeople, personRegistry.snapshot()::get);
+        }
+        if(personRegistry.size() == 0 && !personRegistry.isLoading()) {
+            return new DuplicateReport(reportPath, expectedPeople);
+        }
+
+        return DuplicateReport.trackingParsedPeople(reportPath, expectedPeople);
+    }
+
+    /**
+     * Imports every registry file found at the given directory or glob pattern.
+     * The files are parsed in parallel, each with its own separator characters,
+     * and a person found in more than one file is resolved according to the conflict policy.
+     * The merged people are added to the registry on this thread, the table is updated on the GUI thread.
+     *
+     * @param pathOrGlob the path of a directory, a file or a glob pattern
+     * @param conflictPolicy decides which data is kept for a person found in more than one file
+     *
+     * @see RegistryImporter
+     */
+    private void interruptableFilesImport(String pathOrGlob, ConflictPolicy conflictPolicy) {
+        try {
+            List<Path> files = RegistryImporter.findRegistryFiles(pathOrGlob);
+            if(files.isEmpty()) {
+                logException("No registry file found at '" + pathOrGlob + "'");
+                return;
+            }
+            logInfo("Importing " + files.size() + " registry files");
+
+            RegistryImporter importer = new RegistryImporter(conflictPolicy, firstLine, this::logException);
+            Map<String, Person> importedPeople = importer.importFiles(files);
+
+            publishImportedPeople(importedPeople);
+            logInfo(importedPeople.size() + " people imported from " + files.size() + " registry files");
+            logRejectCounts(importer.getRejectCounts(), "the \".rejects\" files next to the imported files");
+        } catch (InterruptedIOException e) {
+            logException(e.getMessage());
+        } catch (IOException e) {
+            logException("Exception occurred during importing the files: " + e.getMessage());
         }
     }
 
     /**
      * Saves the registry from the memory to a file at the given path.
      * If the file exists, it will be overwritten, otherwise it's created.
+     * If the path ends with ".gz", the file is gzip compressed on multiple threads.
      * The first line is the same as the one read from a file previously, or the default "Name: Number, Email".
      * Data about a person in the registry is written to the file as single line formatted according to the first line.
      *
+     * The lines are written in the given sort order, so the file is the same every time the same registry is saved.
+     * If the registry doesn't fit in the memory budget of the sorting, sorted runs are spilled to temporary files.
+     * If the registry is still loaded from an image, the saving waits until every person is loaded.
+     *
      * @param path the absolute path of the file to save the registry to
+     * @param sortOrder the order of the people in the file
+     *
+     * @see ExternalMergeSorter
      */
-    private void interruptableFileSave(String path) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
-            writer.write(((firstLine == null) ? "" : firstLine) + "\n");
+    private void interruptableFileSave(String path, SortOrder sortOrder) {
+        ExternalMergeSorter sorter = new ExternalMergeSorter();
 
-            for(Person person : personRegistry.values()) {
-                if(Thread.currentThread().isInterrupted()) {
-                    logException("Interruption occurred while saving registry to file, file will be deleted as its content may be broken");
-                    new File(path).delete();
-                    return;
-                }
+        try (BufferedWriter writer = RegistryFiles.openWriter(path)) {
+            awaitRegistryImageLoaded();
+            writer.write(((firstLine == null) ? "" : firstLine) + "\n");
 
-                writer.write(getPrintablePerson(person));
-                writer.write("\n");
-            }
+            sorter.write(personRegistry.values(), sortOrder, person -> getPrintablePerson(person) + "\n", writer);
 
             logInfo("Registry saved successfully.");
+            if(sorter.getSpilledRuns() > 0) {
+                logInfo("The registry was sorted in " + sorter.getSpilledRuns() + " runs on the disk, merged in "
+                        + (sorter.getMergePasses() + 1) + " passes");
+            }
+        } catch (InterruptedIOException e) {
+            logException("Interruption occurred while saving registry to file, file will be deleted as its content may be broken");
+            new File(path).delete();
         } catch (IOException e) {
             logException("IOException occurred: " + e.getMessage());
         } catch (Exception e) {
@@ -232,6 +601,215 @@ public class Controller {
         }
     }
 
+    /**
+     * Loads the registry from an image written at the previous clean shutdown.
+     * It is called before the window is shown, but it only reads the header of the image:
+     * the people are loaded to the registry and to the table on a new thread,
+     * and until a person is loaded, it is looked up in the memory-mapped image by its name.
+     * If the registry file of the image was modified since, the image is stale and the registry file is processed instead.
+     *
+     * @param imagePath the path of the registry image
+     *
+     * @see RegistryImage
+     */
+    void loadRegistryImage(Path imagePath) {
+        try {
+            RegistryImage image = RegistryImage.read(imagePath);
+
+            if(image.isStale()) {
+                logInfo("Registry image is stale, processing registry from '" + image.getSourcePath() + "'");
+                new Thread(() -> interruptableFileProcess(image.getSourcePath())).start();
+                return;
+            }
+
+            firstLine = image.getFirstLine();
+            declareSeparatorCharacters();
+            registrySourcePath = image.getSourcePath();
+            registrySourceLastModified = (registrySourcePath == null) ? 0 : new File(registrySourcePath).lastModified();
+
+            personRegistry.startLoading(image::find);
+            registryImageLoader = new Thread(() -> loadRegistryImagePeople(image, imagePath), "registry-image-loader");
+            registryImageLoader.start();
+
+            logInfo("Loading " + image.getPeople().size() + " people from registry image '" + imagePath + "'");
+        } catch (NoSuchFileException e) {
+            logInfo("No registry image found at '" + imagePath + "'");
+        } catch (IOException e) {
+            logException("Exception occurred during loading the registry image: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the people of the image to the registry, the people modified or deleted in the meantime are skipped.
+     * The people are shown in the table in batches, in the order of their names.
+     *
+     * @param image the image read from the file
+     * @param imagePath the path of the registry image
+     */
+    private void loadRegistryImagePeople(RegistryImage image, Path imagePath) {
+        PersonTableBatcher tableBatcher = new PersonTableBatcher();
+
+        try {
+            for(Person person : image.getPeople()) {
+                if(personRegistry.load(person)) {
+                    tableBatcher.add(person);
+                }
+            }
+
+            logInfo(image.getPeople().size() + " people loaded from registry image '" + imagePath + "'");
+        } catch (RuntimeException e) {
+            logException("Exception occurred during loading the registry image: " + e.getMessage());
+        } finally {
+            personRegistry.finishLoading();
+            personRegistry.commitVersion();
+            tableBatcher.flush();
+            Platform.runLater(this::sortTable);
+        }
+    }
+
+    /**
+     * Waits until the people of the registry image are loaded, if the registry is loaded from an image.
+     *
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    private void awaitRegistryImageLoaded() throws InterruptedIOException {
+        if(registryImageLoader == null) {
+            return;
+        }
+
+        try {
+            registryImageLoader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the registry image to be loaded");
+        }
+    }
+
+    /**
+     * Waits until the people of the registry image are loaded before a task, that needs the whole registry,
+     * like a query. The user is told about the waiting, as loading a huge image takes a while.
+     *
+     * @param task the task waiting for the registry, like "The query"
+     * @return whether the whole registry is loaded, false if the thread was interrupted while waiting
+     */
+    private boolean awaitWholeRegistry(String task) {
+        if(personRegistry.isLoading()) {
+            logInfo(task + " waits until the registry image is loaded");
+        }
+
+        try {
+            awaitRegistryImageLoaded();
+            return true;
+        } catch (InterruptedIOException e) {
+            logException(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the registry to an image, that is loaded at the next start.
+     * It is called at a clean shutdown, when the GUI can't show messages any more.
+     * If the registry is still loaded from the previous image, the loading is finished first.
+     *
+     * @param imagePath the path of the registry image
+     * @throws IOException if the image can't be written
+     */
+    void saveRegistryImage(Path imagePath) throws IOException {
+        awaitRegistryImageLoaded();
+        new RegistryImage(registrySourcePath, registrySourceLastModified, firstLine, personRegistry.values()).write(imagePath);
+    }
+
+    /* ************************************
+     * Replication methods
+     * ************************************/
+
+    /**
+     * Starts replicating the registry as primary: every modification is streamed to the replicas connecting to the port.
+     *
+     * @param port the TCP port the replicas connect to
+     * @throws IOException if the port can't be opened
+     *
+     * @see ReplicationServer
+     */
+    void startPrimary(int port) throws IOException {
+        replicationServer = new ReplicationServer(personRegistry, port);
+        replicationServer.start();
+
+        logInfo("Replicating registry as primary on port " + replicationServer.getPort());
+        startReplicationStatusUpdates(() -> "Primary on port " + replicationServer.getPort()
+                + ", replicas: " + replicationServer.getReplicaCount());
+    }
+
+    /**
+     * Starts replicating the registry as a replica of the primary at the given address.
+     * The table follows the registry through its change events, as the modifications come from the primary.
+     * The registry of a replica should not be modified on the GUI, as those modifications are not sent back to the primary.
+     *
+     * @param host the host of the primary
+     * @param port the replication port of the primary
+     *
+     * @see ReplicationClient
+     */
+    void startReplica(String host, int port) {
+        personRegistry.getEventBus().subscribe("table-follower", TABLE_UPDATE_BATCH_SIZE, new RegistryChangeListener() {
+            @Override
+            public void onChanges(List<RegistryChangeEvent> events) {
+                showChangesInTable(events);
+            }
+
+            @Override
+            public void onChangesLost(long lostEvents) {
+                Platform.runLater(() -> personTableRows.setAll(personRegistry.values()));
+            }
+        });
+
+        replicationClient = new ReplicationClient(personRegistry, host, port);
+        replicationClient.start();
+
+        logInfo("Replicating registry from primary at " + host + ":" + port);
+        startReplicationStatusUpdates(() -> replicationClient.isReplicating()
+                ? "Replica, lag: " + replicationClient.getSequenceLag() + " events, " + replicationClient.getLagMillis() + " ms"
+                : "Replica, connecting to " + host + ":" + port);
+    }
+
+    /**
+     * Stops the replication, if it was started.
+     */
+    void stopReplication() {
+        try {
+            if(replicationServer != null) {
+                replicationServer.close();
+            }
+            if(replicationClient != null) {
+                replicationClient.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Exception occurred during stopping the replication: " + e.getMessage());
+        }
+
+        if(replicationStatusUpdater != null) {
+            replicationStatusUpdater.shutdownNow();
+        }
+    }
+
+    /**
+     * Shows the replication status on the GUI every second.
+     *
+     * @param status provides the current status
+     */
+    private void startReplicationStatusUpdates(Supplier<String> status) {
+        replicationStatusUpdater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-status");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        replicationStatusUpdater.scheduleAtFixedRate(() -> {
+            String currentStatus = status.get();
+            Platform.runLater(() -> replicationStatusLabel.setText(currentStatus));
+        }, 0, 1, TimeUnit.SECONDS);
+    }
+
     /* ************************************
      * Helper methods
      * ************************************/
@@ -242,16 +820,44 @@ public class Controller {
      * The default separator of number and email is ','.
      */
     void declareSeparatorCharacters(){
-        String schema = firstLine.trim().toLowerCase();
-        schema = schema.replaceFirst("name", "");
-        nameNumberSeparator = schema.substring(0,1);
-        schema = schema.trim().substring(1);
-        schema = schema.replaceFirst("number", "");
-        numberEmailSeparator = schema.substring(0,1);
+        RegistryFileParser parser = new RegistryFileParser(firstLine, this::logException);
+
+        nameNumberSeparator = parser.getNameNumberSeparator();
+        numberEmailSeparator = parser.getNumberEmailSeparator();
+    }
+
+    /**
+     * Estimates the number of people in a registry file based on its size.
+     *
+     * @param file the registry file, compressed or not
+     * @return the estimated number of people
+     */
+    private long estimatePeopleInFile(File file) throws IOException {
+        long estimatedPeople = file.length() / ESTIMATED_LINE_LENGTH;
+
+        return RegistryFiles.isCompressed(file) ? estimatedPeople * ESTIMATED_COMPRESSION_RATIO : estimatedPeople;
+    }
+
+    /**
+     * Prints the number of rejected lines for each reason, instead of printing every rejected line.
+     *
+     * @param rejectCounts the number of rejected lines for each reason
+     * @param reportLocation where the rejected lines can be found
+     */
+    private void logRejectCounts(Map<RejectReason, Integer> rejectCounts, String reportLocation) {
+        if(rejectCounts.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder("Rejected lines, see " + reportLocation + ":");
+        rejectCounts.forEach((reason, count) -> message.append("\n\t").append(reason).append(": ").append(count));
+
+        logInfo(message.toString());
     }
 
     /**
      * Modifies the person's data in the registry.
+     * The modification is made on a copy of the person, that replaces the original one in the registry.
      * To make the change permanent, the user should save the registry to a file.
      *
      * @param name the person's name provided by the user
@@ -260,7 +866,7 @@ public class Controller {
      * @return whether the person's data has changed
      */
     boolean modifyPersonInRegistry(String name, String number, String email) {
-        Person person = personRegistry.get(name);
+        Person person = new Person(personRegistry.get(name));
 
         boolean isPersonModified = false;
 
@@ -272,6 +878,10 @@ public class Controller {
             isPersonModified |= person.setEmail(email);
         }
 
+        if(isPersonModified) {
+            personRegistry.put(name, person);
+        }
+
         return isPersonModified;
     }
 
@@ -282,16 +892,7 @@ public class Controller {
      * @return The new Person object if the data line is properly formatted, otherwise null
      */
     Person processLine(String line){
-        try {
-            String name = line.split(nameNumberSeparator)[0];
-            String number = line.split(nameNumberSeparator)[1].split(numberEmailSeparator)[0];
-            String email = line.split(nameNumberSeparator)[1].split(numberEmailSeparator)[1];
-
-            return new Person(name, number, email);
-        } catch (Exception e) {
-            logException("Exception occurred during processing line: '" + line + "'");
-            return null;
-        }
+        return new RegistryFileParser(firstLine, this::logException).processLine(line);
     }
 
     /**
@@ -314,6 +915,180 @@ public class Controller {
                 "\n";
     }
 
+    /**
+     * Adds the imported people to the registry, then shows them in the table in batches.
+     * It runs on the importing thread, only the table updates run on the GUI thread.
+     * The registry publishes the people in one step, so its readers never see a partially published import.
+     *
+     * @param importedPeople the merged people of an import mapped by their name
+     *
+     * @see PersonRegistry#putAll(Map)
+     */
+    private void publishImportedPeople(Map<String, Person> importedPeople) {
+        personRegistry.putAll(importedPeople);
+        personRegistry.commitVersion();
+
+        PersonTableBatcher tableBatcher = new PersonTableBatcher();
+        for(Person person : importedPeople.values()) {
+            tableBatcher.add(person);
+        }
+        tableBatcher.flush();
+        Platform.runLater(this::sortTable);
+    }
+
+    /**
+     * Shows a batch of people in the table on the GUI thread.
+     *
+     * @param people the new or modified people, every name at most once
+     * @param removedNames the names of the people to be removed from the table
+     */
+    private void showPeopleInTable(Collection<Person> people, Collection<String> removedNames) {
+        if(people.isEmpty() && removedNames.isEmpty()) {
+            return;
+        }
+
+        Platform.runLater(() -> updateTable(people, removedNames));
+    }
+
+    /**
+     * Updates the table with a batch of people, it has to be called on the GUI thread.
+     * A modified person replaces its earlier version in the same row, so the rows are not searched or shifted.
+     * The table is not sorted after every batch, it is sorted at the end of a load.
+     *
+     * @param people the new or modified people, every name at most once
+     * @param removedNames the names of the people to be removed from the table
+     *
+     * @see PersonTableRows
+     */
+    private void updateTable(Collection<Person> people, Collection<String> removedNames) {
+        personTableRows.update(people, removedNames);
+    }
+
+    /**
+     * Applies the sorting of the table to its rows, if the table is sorted by a column.
+     * It has to be called on the GUI thread, once at the end of a load, or when the user sorts the table.
+     *
+     * A copy of the rows is sorted on a new thread, then the sorted rows replace the rows on the GUI thread.
+     * If the rows were modified in the meantime, they are sorted again. Only the result of the last request is shown.
+     */
+    private void sortTable() {
+        if(personTable.getSortOrder().isEmpty()) {
+            return;
+        }
+
+        Comparator<Person> comparator = getTableOrder();
+        List<Person> rows = personTableRows.copyRows();
+        int modificationCount = personTableRows.getModificationCount();
+        int sortRequest = ++tableSortRequests;
+
+        new Thread(() -> {
+            PersonTableRows.SortedRows sortedRows = PersonTableRows.sort(rows, comparator);
+
+            Platform.runLater(() -> {
+                if(sortRequest == tableSortRequests && !personTableRows.setSorted(sortedRows, modificationCount)) {
+                    sortTable();
+                }
+            });
+        }).start();
+    }
+
+    /**
+     * Returns the order of the people given by the sort order of the table.
+     *
+     * @return compares the people by the sorted columns
+     */
+    private Comparator<Person> getTableOrder() {
+        Comparator<Person> tableOrder = null;
+
+        for(TableColumn<Person, ?> column : personTable.getSortOrder()) {
+            Comparator<Person> columnOrder = columnOrders.get(column);
+            if(column.getSortType() == TableColumn.SortType.DESCENDING) {
+                columnOrder = columnOrder.reversed();
+            }
+
+            tableOrder = (tableOrder == null) ? columnOrder : tableOrder.thenComparing(columnOrder);
+        }
+
+        return tableOrder;
+    }
+
+    /**
+     * Shows the differences of two versions of a persistent registry in the table, like the ones before and after an undo.
+     * The people shared by the versions are not visited, so it takes time proportional to the differences.
+     * It has to be called on the GUI thread.
+     *
+     * @param oldVersion the version shown in the table
+     * @param newVersion the version to be shown in the table
+     */
+    private void showVersionChangesInTable(PersistentHashMap<String, Person> oldVersion,
+                                           PersistentHashMap<String, Person> newVersion) {
+        List<Person> changedPeople = new ArrayList<>();
+        Set<String> removedNames = new HashSet<>();
+
+        oldVersion.diff(newVersion, (name, oldPerson, newPerson) -> {
+            if(newPerson == null) {
+                removedNames.add(name);
+            } else {
+                changedPeople.add(newPerson);
+            }
+        });
+
+        updateTable(changedPeople, removedNames);
+        sortTable();
+    }
+
+    /**
+     * Shows a batch of registry change events in the table.
+     * Only the last version of a person in the batch is shown, the deleted people are removed.
+     *
+     * @param events the change events in the order of their sequence numbers
+     */
+    private void showChangesInTable(List<RegistryChangeEvent> events) {
+        Map<String, Person> latestPeople = new LinkedHashMap<>();
+        Set<String> removedNames = new HashSet<>();
+
+        for(RegistryChangeEvent event : events) {
+            if(event.getNewPerson() == null) {
+                latestPeople.remove(event.getName());
+                removedNames.add(event.getName());
+            } else {
+                latestPeople.put(event.getName(), event.getNewPerson());
+                removedNames.remove(event.getName());
+            }
+        }
+
+        showPeopleInTable(latestPeople.values(), removedNames);
+    }
+
+    /**
+     * Collects the people processed from a file and shows them in the table in batches.
+     * If a person is processed more than once, only the last version is shown.
+     */
+    private class PersonTableBatcher {
+        private Map<String, Person> batch = new LinkedHashMap<>();
+
+        /**
+         * Adds a processed person to the batch, and shows the batch if it is full.
+         *
+         * @param person the processed person
+         */
+        void add(Person person) {
+            batch.put(person.getName(), person);
+
+            if(batch.size() >= TABLE_UPDATE_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Shows the collected people in the table and starts a new batch.
+         */
+        void flush() {
+            showPeopleInTable(batch.values(), Collections.emptySet());
+            batch = new LinkedHashMap<>();
+        }
+    }
+
     /* ************************************
      * Logger methods
      * ************************************/
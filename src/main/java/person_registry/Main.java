@@ -6,18 +6,83 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Starts the GUI application.
+ *
+ * If the application is started with the "--image=path" parameter, the registry is loaded from that image
+ * in the background while the window is shown, and it is written back to the image at a clean shutdown.
+ *
+ * With the "--primary=port" parameter the registry is replicated to the replicas connecting to that port,
+ * with the "--replica=host:port" parameter the registry is kept identical with the primary at that address.
+ *
+ * With the "--persistent" parameter the registry keeps its earlier versions, so its modifications can be undone.
+ */
 public class Main extends Application {
+    private Controller controller;
+    private Path registryImagePath;
 
     @Override
     public void start(Stage primaryStage) throws Exception{
         ClassLoader classLoader = getClass().getClassLoader();
-        Parent root = FXMLLoader.load(classLoader.getResource("mainWindow.fxml"));
+        FXMLLoader loader = new FXMLLoader(classLoader.getResource("mainWindow.fxml"));
+        Parent root = loader.load();
+        controller = loader.getController();
+
+        if(getParameters().getUnnamed().contains("--persistent")) {
+            controller.usePersistentRegistry();
+        }
+
+        String imageParameter = getParameters().getNamed().get("image");
+        if(imageParameter != null) {
+            registryImagePath = Paths.get(imageParameter);
+            controller.loadRegistryImage(registryImagePath);
+        }
+
+        startReplication();
+
         primaryStage.setTitle("Person registry");
-        primaryStage.setScene(new Scene(root, 600, 600));
+        primaryStage.setScene(new Scene(root, 600, 790));
         primaryStage.setResizable(false);
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        if(controller == null) {
+            return;
+        }
+
+        controller.stopReplication();
+
+        if(registryImagePath == null) {
+            return;
+        }
+
+        try {
+            controller.saveRegistryImage(registryImagePath);
+            System.out.println("Registry image saved to '" + registryImagePath + "'");
+        } catch (IOException e) {
+            System.out.println("Registry image could not be saved: " + e.getMessage());
+        }
+    }
+
+    private void startReplication() throws IOException {
+        String primaryParameter = getParameters().getNamed().get("primary");
+        String replicaParameter = getParameters().getNamed().get("replica");
+
+        if(primaryParameter != null) {
+            controller.startPrimary(Integer.parseInt(primaryParameter));
+        } else if(replicaParameter != null) {
+            int portSeparator = replicaParameter.lastIndexOf(':');
+            controller.startReplica(replicaParameter.substring(0, portSeparator),
+                    Integer.parseInt(replicaParameter.substring(portSeparator + 1)));
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,302 @@
+package person_registry;
+
+import javafx.collections.ObservableList;
+import person_registry.model.Person;
+
+import java.util.*;
+
+/**
+ * The rows of the person table, indexed by the people's name.
+ * A new version of a person replaces its row in place, so an update of the table costs time
+ * proportional to the size of the update, not to the size of the table.
+ *
+ * The index is checked on every lookup. Removing a row moves the following rows up by one,
+ * so the rows are looked for a few positions above their indexed position.
+ * If the rows are reordered, e.g. the user sorts the table by a column, the index is rebuilt at the next lookup.
+ *
+ * A huge table is sorted on a copy of its rows on a background thread, then the sorted rows and their index
+ * replace the rows, so the GUI thread only copies references.
+ *
+ * Every method, except the static sorting methods, has to be called on the GUI thread.
+ */
+class PersonTableRows {
+    /**
+     * Maximum number of removed rows, before the index is rebuilt.
+     * A removal of more rows at once copies the remaining rows to a new list instead of removing them one by one.
+     */
+    private static final int MAX_REMOVED_ROWS = 32;
+
+    /**
+     * The order of the name column.
+     */
+    static final Comparator<Person> NAME_ORDER = Comparator.comparing(Person::getName);
+
+    /**
+     * The order of the phone number column, it compares the parts of the phone numbers without assembling them.
+     */
+    static final Comparator<Person> PHONE_ORDER = Comparator.comparing(Person::getPhoneDialingCode)
+            .thenComparingInt(Person::getPhoneSubscriberNumber);
+
+    /**
+     * The order of the email column, it compares the parts of the email addresses without assembling them.
+     */
+    static final Comparator<Person> EMAIL_ORDER = PersonTableRows::compareEmails;
+
+    private final ObservableList<Person> items;
+    private Map<String, Integer> rowIndex = new HashMap<>();
+    private int removedRows;
+    private int modificationCount;
+
+    /**
+     * Class constructor that creates the rows of a table.
+     *
+     * @param items the items of the table, they should only be modified through this object
+     */
+    PersonTableRows(ObservableList<Person> items) {
+        this.items = items;
+
+        rebuildIndex();
+    }
+
+    ObservableList<Person> getItems() {
+        return items;
+    }
+
+    /**
+     * Replaces every row with the given people.
+     *
+     * @param people the people to be shown
+     */
+    void setAll(Collection<Person> people) {
+        items.setAll(people);
+        modificationCount++;
+
+        rebuildIndex();
+    }
+
+    /**
+     * Returns a copy of the rows, that can be sorted on another thread.
+     *
+     * @return the people in the order of the rows
+     */
+    List<Person> copyRows() {
+        return new ArrayList<>(items);
+    }
+
+    /**
+     * Returns the number of modifications of the rows, to check whether a copy of the rows is still up to date.
+     * Reordering the rows is not counted.
+     *
+     * @return the number of modifications so far
+     */
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Replaces the rows with their sorted copy, if they were not modified since the copy was made.
+     *
+     * @param sortedRows the rows sorted by sort
+     * @param copiedModificationCount the modification count when the rows were copied
+     * @return whether the rows were replaced, false if they were modified in the meantime
+     */
+    boolean setSorted(SortedRows sortedRows, int copiedModificationCount) {
+        if(copiedModificationCount != modificationCount) {
+            return false;
+        }
+
+        items.setAll(sortedRows.people);
+        rowIndex = sortedRows.rowIndex;
+        removedRows = 0;
+
+        return true;
+    }
+
+    /**
+     * Sorts a copy of the rows and indexes the sorted rows. It can be called on any thread.
+     *
+     * @param rows the copy of the rows
+     * @param comparator the order of the rows
+     * @return the sorted rows and their index
+     */
+    static SortedRows sort(List<Person> rows, Comparator<Person> comparator) {
+        Person[] people = rows.toArray(new Person[0]);
+        Arrays.parallelSort(people, comparator);
+
+        List<Person> sortedPeople = Arrays.asList(people);
+        return new SortedRows(sortedPeople, indexRows(sortedPeople));
+    }
+
+    /**
+     * Updates the table with a batch of people.
+     * A person already in the table replaces its earlier version in the same row, a new person is added to the end.
+     *
+     * @param people the new or modified people, every name at most once
+     * @param removedNames the names of the people to be removed from the table
+     */
+    void update(Collection<Person> people, Collection<String> removedNames) {
+        List<Person> newPeople = new ArrayList<>();
+
+        for(Person person : people) {
+            int row = findRow(person.getName());
+
+            if(row >= 0) {
+                items.set(row, person);
+            } else {
+                newPeople.add(person);
+            }
+        }
+
+        if(!newPeople.isEmpty()) {
+            int firstRow = items.size();
+            items.addAll(newPeople);
+
+            for(int i = 0; i < newPeople.size(); i++) {
+                rowIndex.put(newPeople.get(i).getName(), firstRow + i);
+            }
+        }
+        modificationCount++;
+
+        remove(removedNames);
+    }
+
+    /**
+     * Removes the people with the given names from the table.
+     *
+     * @param names the names of the people to be removed
+     */
+    void remove(Collection<String> names) {
+        TreeSet<Integer> rows = new TreeSet<>();
+        for(String name : names) {
+            int row = findRow(name);
+            if(row >= 0) {
+                rows.add(row);
+            }
+        }
+
+        if(rows.isEmpty()) {
+            return;
+        }
+
+        if(removedRows + rows.size() > MAX_REMOVED_ROWS) {
+            List<Person> remainingPeople = new ArrayList<>(items.size() - rows.size());
+            for(int row = 0; row < items.size(); row++) {
+                if(!rows.contains(row)) {
+                    remainingPeople.add(items.get(row));
+                }
+            }
+            setAll(remainingPeople);
+            return;
+        }
+
+        for(int row : rows.descendingSet()) {
+            rowIndex.remove(items.remove(row).getName());
+            removedRows++;
+        }
+        modificationCount++;
+    }
+
+    /**
+     * Finds the row of the person with the given name.
+     *
+     * @param name the person's name
+     * @return the index of the row, or -1 if the person is not in the table
+     */
+    int findRow(String name) {
+        Integer indexedRow = rowIndex.get(name);
+        if(indexedRow == null) {
+            return -1;
+        }
+
+        int row = findRowAbove(name, indexedRow);
+        if(row < 0) {
+            rebuildIndex();
+            row = findRowAbove(name, rowIndex.getOrDefault(name, -1));
+        }
+
+        return row;
+    }
+
+    /**
+     * Looks for the person in the indexed row, or in the rows above it, that it could be moved to by removals.
+     */
+    private int findRowAbove(String name, int indexedRow) {
+        for(int row = Math.min(indexedRow, items.size() - 1); row >= 0 && row >= indexedRow - removedRows; row--) {
+            if(items.get(row).getName().equals(name)) {
+                if(row != indexedRow) {
+                    rowIndex.put(name, row);
+                }
+                return row;
+            }
+        }
+
+        return -1;
+    }
+
+    private void rebuildIndex() {
+        rowIndex = indexRows(items);
+        removedRows = 0;
+    }
+
+    private static Map<String, Integer> indexRows(List<Person> rows) {
+        Map<String, Integer> index = new HashMap<>(rows.size() * 4 / 3 + 1);
+        for(int row = 0; row < rows.size(); row++) {
+            index.put(rows.get(row).getName(), row);
+        }
+
+        return index;
+    }
+
+    /**
+     * Compares the email addresses of the people, as if they were compared as strings.
+     */
+    private static int compareEmails(Person first, Person second) {
+        int firstLength = emailLength(first);
+        int secondLength = emailLength(second);
+
+        for(int i = 0; i < Math.min(firstLength, secondLength); i++) {
+            int difference = emailCharAt(first, i) - emailCharAt(second, i);
+            if(difference != 0) {
+                return difference;
+            }
+        }
+
+        return firstLength - secondLength;
+    }
+
+    private static int emailLength(Person person) {
+        String domain = person.getEmailDomain();
+        int localPartLength = person.getEmailLocalPart().length();
+
+        return (domain == null) ? localPartLength : localPartLength + 1 + domain.length();
+    }
+
+    private static char emailCharAt(Person person, int index) {
+        String localPart = person.getEmailLocalPart();
+
+        if(index < localPart.length()) {
+            return localPart.charAt(index);
+        }
+        if(index == localPart.length()) {
+            return '@';
+        }
+        return person.getEmailDomain().charAt(index - localPart.length() - 1);
+    }
+
+    /**
+     * The rows sorted on a background thread, and their index.
+     */
+    static class SortedRows {
+        private final List<Person> people;
+        private final Map<String, Integer> rowIndex;
+
+        private SortedRows(List<Person> people, Map<String, Integer> rowIndex) {
+            this.people = people;
+            this.rowIndex = rowIndex;
+        }
+
+        List<Person> getPeople() {
+            return people;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package person_registry.dedup;
+
+import person_registry.model.Person;
+
+/**
+ * MergeSuggestion class represents two people of the registry, that are probably the same person.
+ */
+public class MergeSuggestion {
+    private final Person first;
+    private final Person second;
+    private final double score;
+
+    /**
+     * Class constructor that creates a new suggestion.
+     *
+     * @param first one of the people
+     * @param second the other person
+     * @param score how likely the two people are the same, between 0 and 1
+     */
+    public MergeSuggestion(Person first, Person second, double score) {
+        this.first = first;
+        this.second = second;
+        this.score = score;
+    }
+
+    public Person getFirst() {
+        return first;
+    }
+
+    public Person getSecond() {
+        return second;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f", score) + ": '" + first.getName() + "' and '" + second.getName() + "'";
+    }
+}
@@ -0,0 +1,144 @@
+package person_registry.dedup;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Helper class to compute comparable forms of names.
+ * A normalised name ignores case, accents, punctuation and extra spaces,
+ * a phonetic key also ignores the spelling differences of similarly sounding names, like "John" and "Jon".
+ */
+public class NameKeys {
+    /**
+     * Soundex digits of the letters 'a' to 'z', '0' means the letter is not coded.
+     */
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    /**
+     * Returns the normalised form of a name: lower case, without accents and punctuation, single spaces between words.
+     *
+     * @param name the name to be normalised
+     * @return the normalised name
+     */
+    public static String normalise(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+
+        return decomposed.replaceAll("\\p{M}", "")
+                .toLowerCase()
+                .replaceAll("[^a-z ]", " ")
+                .trim()
+                .replaceAll(" +", " ");
+    }
+
+    /**
+     * Returns the phonetic key of a name: the Soundex code of every word in alphabetical order.
+     * The order of the words is ignored, so "Smith John" has the same key as "John Smith".
+     *
+     * @param name the name, normalised or not
+     * @return the phonetic key, empty if the name has no letters
+     */
+    public static String phoneticKey(String name) {
+        String normalisedName = normalise(name);
+        if(normalisedName.isEmpty()) {
+            return "";
+        }
+
+        String[] words = normalisedName.split(" ");
+        for(int i = 0; i < words.length; i++) {
+            words[i] = soundex(words[i]);
+        }
+        Arrays.sort(words);
+
+        return String.join(" ", words);
+    }
+
+    /**
+     * Returns the American Soundex code of a single lower case word, like "j500" for "john".
+     *
+     * @param word the word, containing only the letters 'a' to 'z'
+     * @return the four character Soundex code
+     */
+    static String soundex(String word) {
+        StringBuilder code = new StringBuilder(4).append(word.charAt(0));
+        char previousDigit = SOUNDEX_CODES.charAt(word.charAt(0) - 'a');
+
+        for(int i = 1; i < word.length() && code.length() < 4; i++) {
+            char letter = word.charAt(i);
+            char digit = SOUNDEX_CODES.charAt(letter - 'a');
+
+            if(digit != '0' && digit != previousDigit) {
+                code.append(digit);
+            }
+            if(letter != 'h' && letter != 'w') {
+                previousDigit = digit;
+            }
+        }
+
+        while (code.length() < 4) {
+            code.append('0');
+        }
+
+        return code.toString();
+    }
+
+    /**
+     * Returns the Jaro-Winkler similarity of two strings.
+     *
+     * @param first the first string
+     * @param second the second string
+     * @return the similarity between 0 (nothing in common) and 1 (identical)
+     */
+    public static double similarity(String first, String second) {
+        if(first.equals(second)) {
+            return 1.0;
+        }
+        if(first.isEmpty() || second.isEmpty()) {
+            return 0.0;
+        }
+
+        int matchDistance = Math.max(0, Math.max(first.length(), second.length()) / 2 - 1);
+        boolean[] firstMatches = new boolean[first.length()];
+        boolean[] secondMatches = new boolean[second.length()];
+        int matches = 0;
+
+        for(int i = 0; i < first.length(); i++) {
+            int start = Math.max(0, i - matchDistance);
+            int end = Math.min(i + matchDistance + 1, second.length());
+            for(int j = start; j < end; j++) {
+                if(!secondMatches[j] && first.charAt(i) == second.charAt(j)) {
+                    firstMatches[i] = true;
+                    secondMatches[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+
+        if(matches == 0) {
+            return 0.0;
+        }
+
+        int transpositions = 0;
+        for(int i = 0, j = 0; i < first.length(); i++) {
+            if(firstMatches[i]) {
+                while (!secondMatches[j]) {
+                    j++;
+                }
+                if(first.charAt(i) != second.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+
+        double jaro = ((double) matches / first.length() + (double) matches / second.length()
+                + (matches - transpositions / 2.0) / matches) / 3.0;
+
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(first.length(), second.length())) && first.charAt(prefix) == second.charAt(prefix)) {
+            prefix++;
+        }
+
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+}
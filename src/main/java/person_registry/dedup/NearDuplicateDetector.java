@@ -0,0 +1,200 @@
+package person_registry.dedup;
+
+import person_registry.model.Person;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds people in the registry, that are probably the same person with slightly different names,
+ * like "john smith", "John  Smith" and "Jon Smith".
+ *
+ * Comparing every pair of people is not possible in a large registry, so the people are grouped to blocks first
+ * by their phonetic name key, their phone number and the local part of their email address.
+ * Only the people in the same block are compared, and the blocks are processed in parallel.
+ *
+ * A block too large to be compared pair by pair, like the people with the email "info@...",
+ * is sorted by the normalised names, and each person is only compared with the people next to it in a sliding window.
+ */
+public class NearDuplicateDetector {
+    /**
+     * The default minimum score of a merge suggestion.
+     */
+    public static final double DEFAULT_MIN_SCORE = 0.5;
+
+    /**
+     * Blocks larger than this, like the people with the email "info@...", are not compared pair by pair,
+     * but in a sliding window over their people sorted by name.
+     */
+    public static final int MAX_BLOCK_SIZE = 200;
+
+    /**
+     * The number of people a person of a large block is compared with: the people following it in the name order.
+     */
+    public static final int WINDOW_SIZE = 20;
+
+    private static final double NAME_WEIGHT = 0.6;
+    private static final double PHONE_WEIGHT = 0.25;
+    private static final double EMAIL_WEIGHT = 0.15;
+
+    private final double minScore;
+    private final AtomicLong windowedBlocks = new AtomicLong();
+
+    /**
+     * Class constructor that creates a detector with the default minimum score.
+     */
+    public NearDuplicateDetector() {
+        this(DEFAULT_MIN_SCORE);
+    }
+
+    /**
+     * Class constructor that creates a detector with the given minimum score.
+     *
+     * @param minScore the minimum score of a merge suggestion, between 0 and 1
+     */
+    public NearDuplicateDetector(double minScore) {
+        this.minScore = minScore;
+    }
+
+    /**
+     * Returns the number of blocks compared in a sliding window in the last detection,
+     * because they were larger than MAX_BLOCK_SIZE.
+     * @return the number of windowed blocks
+     */
+    public long getWindowedBlocks() {
+        return windowedBlocks.get();
+    }
+
+    /**
+     * Finds the probable duplicates among the given people.
+     *
+     * @param people the people of the registry
+     * @return the merge suggestions ordered by their score, the most likely duplicates first
+     */
+    public List<MergeSuggestion> findDuplicates(Collection<Person> people) {
+        windowedBlocks.set(0);
+
+        ConcurrentMap<String, List<Person>> blocks = people.parallelStream()
+                .flatMap(person -> blockingKeys(person).map(key -> new AbstractMap.SimpleImmutableEntry<>(key, person)))
+                .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+
+        ConcurrentMap<String, MergeSuggestion> suggestions = new ConcurrentHashMap<>();
+        blocks.values().parallelStream()
+                .filter(block -> block.size() > 1)
+                .forEach(block -> compareBlock(block, suggestions));
+
+        List<MergeSuggestion> rankedSuggestions = new ArrayList<>(suggestions.values());
+        rankedSuggestions.sort(Comparator.comparingDouble(MergeSuggestion::getScore).reversed()
+                .thenComparing(suggestion -> suggestion.getFirst().getName()));
+
+        return rankedSuggestions;
+    }
+
+    /**
+     * Returns how likely the two people are the same person.
+     * The similarity of their normalised names counts the most, an identical phone number or email local part adds to it.
+     *
+     * @param first one of the people
+     * @param second the other person
+     * @return the score between 0 and 1
+     */
+    public static double score(Person first, Person second) {
+        double score = NAME_WEIGHT * NameKeys.similarity(NameKeys.normalise(first.getName()), NameKeys.normalise(second.getName()));
+
+        if(isValid(first.getPhoneNumber()) && first.getPhoneNumber().equals(second.getPhoneNumber())) {
+            score += PHONE_WEIGHT;
+        }
+
+        String firstLocalPart = emailLocalPart(first);
+        if(firstLocalPart != null && firstLocalPart.equals(emailLocalPart(second))) {
+            score += EMAIL_WEIGHT;
+        }
+
+        return score;
+    }
+
+    private void compareBlock(List<Person> block, ConcurrentMap<String, MergeSuggestion> suggestions) {
+        int window = block.size();
+
+        if(block.size() > MAX_BLOCK_SIZE) {
+            windowedBlocks.incrementAndGet();
+            block = sortByNormalisedName(block);
+            window = WINDOW_SIZE;
+        }
+
+        for(int i = 0; i < block.size(); i++) {
+            for(int j = i + 1; j < block.size() && j <= i + window; j++) {
+                comparePair(block.get(i), block.get(j), suggestions);
+            }
+        }
+    }
+
+    private void comparePair(Person first, Person second, ConcurrentMap<String, MergeSuggestion> suggestions) {
+        if(first.getName().compareTo(second.getName()) > 0) {
+            Person swapped = first;
+            first = second;
+            second = swapped;
+        }
+
+        double score = score(first, second);
+        if(score >= minScore) {
+            // a pair may be in more than one block, it is suggested only once
+            suggestions.putIfAbsent(first.getName() + '\n' + second.getName(), new MergeSuggestion(first, second, score));
+        }
+    }
+
+    /**
+     * Sorts the people of a block by their normalised name, so the similar names get next to each other.
+     * Each name is normalised only once.
+     */
+    private static List<Person> sortByNormalisedName(List<Person> block) {
+        List<Map.Entry<String, Person>> namedPeople = new ArrayList<>(block.size());
+        for(Person person : block) {
+            namedPeople.add(new AbstractMap.SimpleImmutableEntry<>(NameKeys.normalise(person.getName()), person));
+        }
+        namedPeople.sort(Map.Entry.comparingByKey());
+
+        List<Person> sortedBlock = new ArrayList<>(block.size());
+        for(Map.Entry<String, Person> namedPerson : namedPeople) {
+            sortedBlock.add(namedPerson.getValue());
+        }
+
+        return sortedBlock;
+    }
+
+    private static Stream<String> blockingKeys(Person person) {
+        List<String> keys = new ArrayList<>(3);
+
+        String phoneticKey = NameKeys.phoneticKey(person.getName());
+        if(!phoneticKey.isEmpty()) {
+            keys.add("name:" + phoneticKey);
+        }
+        if(isValid(person.getPhoneNumber())) {
+            keys.add("phone:" + person.getPhoneNumber());
+        }
+        String emailLocalPart = emailLocalPart(person);
+        if(emailLocalPart != null) {
+            keys.add("email:" + emailLocalPart);
+        }
+
+        return keys.stream();
+    }
+
+    private static String emailLocalPart(Person person) {
+        String email = person.getEmail();
+        if(!isValid(email)) {
+            return null;
+        }
+
+        return email.substring(0, email.lastIndexOf('@')).toLowerCase();
+    }
+
+    private static boolean isValid(String value) {
+        return value != null && !value.equalsIgnoreCase("invalid");
+    }
+}
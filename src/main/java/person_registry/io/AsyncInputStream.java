@@ -0,0 +1,141 @@
+package person_registry.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Input stream that reads its source on a separate thread, ahead of the reader.
+ * It is used to decompress a file while the already decompressed data is being parsed.
+ */
+public class AsyncInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int MAX_READ_AHEAD_CHUNKS = 16;
+
+    /**
+     * Marks the end of the source stream in the queue.
+     */
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final InputStream source;
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(MAX_READ_AHEAD_CHUNKS);
+    private final Thread readerThread;
+    private volatile IOException readException;
+
+    private byte[] chunk;
+    private int position;
+
+    /**
+     * Class constructor that starts reading the source on a new daemon thread.
+     *
+     * @param source the stream to be read ahead
+     * @param name the name of the reader thread
+     */
+    public AsyncInputStream(InputStream source, String name) {
+        this.source = source;
+        this.readerThread = new Thread(this::readSource, name);
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(!nextChunk()) {
+            return -1;
+        }
+
+        return chunk[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if(length == 0) {
+            return 0;
+        }
+        if(!nextChunk()) {
+            return -1;
+        }
+
+        int copied = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, bytes, offset, copied);
+        position += copied;
+
+        return copied;
+    }
+
+    @Override
+    public void close() throws IOException {
+        readerThread.interrupt();
+        source.close();
+    }
+
+    /**
+     * Makes sure that the current chunk has unread data.
+     *
+     * @return false at the end of the stream
+     * @throws IOException if the source could not be read
+     */
+    private boolean nextChunk() throws IOException {
+        while (chunk == null || (position == chunk.length && chunk != END_OF_STREAM)) {
+            try {
+                chunk = chunks.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interruption occurred while reading data");
+            }
+        }
+
+        if(chunk == END_OF_STREAM) {
+            if(readException != null) {
+                throw readException;
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the source until its end or an exception, then the end of the stream is always posted to the reader.
+     * Any exception of the source is handed to the reader, it is only left behind, if the stream was closed.
+     */
+    private void readSource() {
+        boolean isClosed = false;
+
+        try {
+            while (true) {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int length = source.read(buffer);
+
+                if(length < 0) {
+                    break;
+                }
+                if(length > 0) {
+                    chunks.put((length == CHUNK_SIZE) ? buffer : Arrays.copyOf(buffer, length));
+                }
+            }
+        } catch (InterruptedException e) {
+            isClosed = true;
+        } catch (IOException e) {
+            readException = e;
+        } catch (Throwable e) {
+            readException = new IOException("Exception occurred while reading data: " + e, e);
+        } finally {
+            if(!isClosed) {
+                postEndOfStream();
+            }
+        }
+    }
+
+    private void postEndOfStream() {
+        try {
+            chunks.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
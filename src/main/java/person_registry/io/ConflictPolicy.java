@@ -0,0 +1,73 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+
+/**
+ * Decides which data is kept, when the same person is found in more than one imported file.
+ */
+public enum ConflictPolicy {
+    /**
+     * The person from the most recently modified file is kept.
+     */
+    LAST_MODIFIED_WINS("Last modified file wins") {
+        @Override
+        ImportedPerson resolve(ImportedPerson current, ImportedPerson candidate) {
+            return (candidate.getLastModified() >= current.getLastModified()) ? candidate : current;
+        }
+    },
+
+    /**
+     * The person from the file with the higher priority is kept.
+     * The files are ordered by their name and the first file has the highest priority.
+     */
+    SOURCE_PRIORITY("Source priority wins") {
+        @Override
+        ImportedPerson resolve(ImportedPerson current, ImportedPerson candidate) {
+            return (candidate.getSourcePriority() < current.getSourcePriority()) ? candidate : current;
+        }
+    },
+
+    /**
+     * The valid phone number and email address are taken from the most recently modified file, that has them.
+     */
+    FIELD_MERGE("Merge valid fields") {
+        @Override
+        ImportedPerson resolve(ImportedPerson current, ImportedPerson candidate) {
+            ImportedPerson newer = LAST_MODIFIED_WINS.resolve(current, candidate);
+            ImportedPerson older = (newer == candidate) ? current : candidate;
+
+            String phoneNumber = isValid(newer.getPerson().getPhoneNumber())
+                    ? newer.getPerson().getPhoneNumber() : older.getPerson().getPhoneNumber();
+            String email = isValid(newer.getPerson().getEmail())
+                    ? newer.getPerson().getEmail() : older.getPerson().getEmail();
+
+            Person merged = new Person(newer.getPerson().getName(), phoneNumber, email);
+
+            return new ImportedPerson(merged, newer.getLastModified(), newer.getSourcePriority());
+        }
+
+        private boolean isValid(String value) {
+            return !value.equalsIgnoreCase("invalid");
+        }
+    };
+
+    private final String description;
+
+    ConflictPolicy(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Returns the data to be kept from two imported versions of the same person.
+     *
+     * @param current the version kept so far
+     * @param candidate the version found in another file
+     * @return the version to be kept
+     */
+    abstract ImportedPerson resolve(ImportedPerson current, ImportedPerson candidate);
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,177 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+import person_registry.model.helper.BloomFilter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reports the names that are found more than once in a registry file, as each of them overwrites the earlier one.
+ *
+ * The names of the file are remembered in a Bloom filter, that takes about a byte per person.
+ * A name found by the filter is confirmed in an exact set of the names already found by the filter,
+ * so only the possible duplicates take more memory.
+ * The first time the filter finds a name, it is a duplicate if it replaced a person in the registry,
+ * that was not in the registry before the file. Otherwise it is a false positive of the filter.
+ * Either way, the name is added to the exact set, as it is surely found in the file from then on.
+ *
+ * The registry before the file is looked up in a snapshot of it, like a version of a persistent registry.
+ * A registry, that is modified in place, can't be seen as it was, so the people parsed from the file
+ * are remembered by their identity instead, while they are in the registry.
+ *
+ * The report is streamed to a file, one line per duplicate, and it is only created if there is a duplicate.
+ */
+public class DuplicateReport implements Closeable {
+    /**
+     * The accepted probability of a Bloom filter false positive.
+     */
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Path reportPath;
+    private final BloomFilter seenNames;
+    private final Set<String> confirmedNames = new HashSet<>();
+    private final Function<String, Person> registryBeforeFile;
+    private final Set<Person> parsedPeople;
+    private BufferedWriter writer;
+    private IOException writeException;
+    private int duplicateCount;
+
+    /**
+     * Class constructor that creates a report for a file with the expected number of people,
+     * that is processed to an empty registry.
+     * A report left behind by an earlier processing of the file is deleted.
+     *
+     * @param reportPath the path of the report file
+     * @param expectedPeople the estimated number of people in the registry file
+     * @throws IOException if the earlier report can't be deleted
+     */
+    public DuplicateReport(Path reportPath, long expectedPeople) throws IOException {
+        this(reportPath, expectedPeople, name -> null);
+    }
+
+    /**
+     * Class constructor that creates a report for a file with the expected number of people.
+     * A report left behind by an earlier processing of the file is deleted.
+     *
+     * @param reportPath the path of the report file
+     * @param expectedPeople the estimated number of people in the registry file
+     * @param registryBeforeFile finds a person in the registry as it was before the file, like a snapshot of it
+     * @throws IOException if the earlier report can't be deleted
+     */
+    public DuplicateReport(Path reportPath, long expectedPeople, Function<String, Person> registryBeforeFile)
+            throws IOException {
+        this(reportPath, expectedPeople, registryBeforeFile, null);
+    }
+
+    private DuplicateReport(Path reportPath, long expectedPeople, Function<String, Person> registryBeforeFile,
+                            Set<Person> parsedPeople) throws IOException {
+        this.reportPath = reportPath;
+        this.seenNames = new BloomFilter(expectedPeople, FALSE_POSITIVE_RATE);
+        this.registryBeforeFile = registryBeforeFile;
+        this.parsedPeople = parsedPeople;
+
+        Files.deleteIfExists(reportPath);
+    }
+
+    /**
+     * Creates a report for a file with the expected number of people, that is processed to a non-empty registry,
+     * that is modified in place, like a concurrent registry.
+     * The people parsed from the file are remembered by their identity, while they are in the registry.
+     * A report left behind by an earlier processing of the file is deleted.
+     *
+     * @param reportPath the path of the report file
+     * @param expectedPeople the estimated number of people in the registry file
+     * @return the report, that tells the people of the file from the earlier people of the registry
+     * @throws IOException if the earlier report can't be deleted
+     */
+    public static DuplicateReport trackingParsedPeople(Path reportPath, long expectedPeople) throws IOException {
+        return new DuplicateReport(reportPath, expectedPeople, null, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    public Path getReportPath() {
+        return reportPath;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * Checks whether the person was already found earlier in the file, and reports it if so.
+     *
+     * @param lineNumber the number of the person's line in the file
+     * @param person the person processed from the line
+     * @param previous the value replaced in the registry by the person, or null
+     */
+    public void check(int lineNumber, Person person, Person previous) {
+        String name = person.getName();
+        boolean isPreviousParsed = false;
+        if(parsedPeople != null) {
+            isPreviousParsed = previous != null && parsedPeople.remove(previous);
+            parsedPeople.add(person);
+        }
+
+        if(seenNames.add(name)) {
+            return;
+        }
+
+        boolean isConfirmed = !confirmedNames.add(name);
+        if(!isConfirmed && (previous == null || wasInRegistryBeforeFile(previous, isPreviousParsed))) {
+            return;
+        }
+
+        duplicateCount++;
+        write(lineNumber + "\t" + name + "\t" + ((previous == null) ? "" : previous.getPhoneNumber()) + "\t"
+                + ((previous == null) ? "" : previous.getEmail()));
+    }
+
+    private boolean wasInRegistryBeforeFile(Person previous, boolean isPreviousParsed) {
+        if(parsedPeople != null) {
+            return !isPreviousParsed;
+        }
+
+        return previous == registryBeforeFile.apply(previous.getName());
+    }
+
+    /**
+     * Closes the report file.
+     *
+     * @throws IOException if the report could not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        if(writer != null) {
+            writer.close();
+        }
+
+        if(writeException != null) {
+            throw writeException;
+        }
+    }
+
+    private void write(String reportLine) {
+        if(writeException != null) {
+            return;
+        }
+
+        try {
+            if(writer == null) {
+                writer = Files.newBufferedWriter(reportPath);
+                writer.write("Line\tName\tOverwritten number\tOverwritten email\n");
+            }
+            writer.write(reportLine);
+            writer.write("\n");
+        } catch (IOException e) {
+            writeException = e;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Writes the lines of people in a sort order, using no more memory than a fixed budget.
+ *
+ * The lines are collected with their sort keys until the budget is used up,
+ * then they are sorted and spilled to a temporary file as a sorted run.
+ * At the end the runs are merged into the output with a priority queue, that holds one line of each run.
+ * If every line fits in the budget, they are sorted in the memory and no temporary file is created.
+ *
+ * A merge reads a limited number of runs at once, each through a buffer sized from the budget.
+ * If there are more runs, they are merged to longer intermediate runs in several passes first.
+ */
+public class ExternalMergeSorter {
+    /**
+     * The system property, that sets the memory budget in megabytes, like "-Dperson_registry.sortMemoryMB=256".
+     */
+    public static final String MEMORY_BUDGET_PROPERTY = "person_registry.sortMemoryMB";
+
+    /**
+     * The estimated memory used by a line and its key besides their characters.
+     */
+    private static final long LINE_OVERHEAD_BYTES = 96;
+
+    /**
+     * The maximum number of runs merged at once.
+     */
+    public static final int MAX_MERGE_FAN_IN = 64;
+
+    private static final int MIN_BUFFER_SIZE = 1 << 12;
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    private final long memoryBudget;
+    private final int mergeFanIn;
+    private final int bufferSize;
+    private int spilledRuns;
+    private int mergePasses;
+
+    /**
+     * Class constructor that creates a sorter with the memory budget set by the system property,
+     * or a quarter of the maximum heap size.
+     */
+    public ExternalMergeSorter() {
+        this(Long.getLong(MEMORY_BUDGET_PROPERTY, Math.max(1, Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024))) * 1024 * 1024);
+    }
+
+    /**
+     * Class constructor that creates a sorter with the given memory budget.
+     * The budget is shared by the buffers of a merge: the runs merged at once and the output each get one buffer.
+     *
+     * @param memoryBudget the memory the collected lines may use, in bytes
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public ExternalMergeSorter(long memoryBudget) {
+        if(memoryBudget <= 0) {
+            throw new IllegalArgumentException("The memory budget of the sorting has to be positive: " + memoryBudget);
+        }
+
+        this.memoryBudget = memoryBudget;
+        this.mergeFanIn = (int) Math.max(2, Math.min(MAX_MERGE_FAN_IN, memoryBudget / MIN_BUFFER_SIZE - 1));
+        this.bufferSize = (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, memoryBudget / (mergeFanIn + 1)));
+    }
+
+    /**
+     * Returns the number of sorted runs spilled to temporary files by the last write.
+     * @return the number of spilled runs
+     */
+    public int getSpilledRuns() {
+        return spilledRuns;
+    }
+
+    /**
+     * Returns the number of passes, that merged the runs to longer intermediate runs in the last write.
+     * The final merge into the output is not counted.
+     * @return the number of intermediate merge passes
+     */
+    public int getMergePasses() {
+        return mergePasses;
+    }
+
+    /**
+     * Writes the lines of the people to the writer in the given sort order.
+     * The temporary files are deleted, even if the writing fails.
+     *
+     * @param people the people to be written
+     * @param sortOrder the order of the lines
+     * @param lineFormatter creates the line of a person, including its line separator
+     * @param writer receives the sorted lines
+     * @throws InterruptedIOException if the thread is interrupted during the sorting
+     * @throws IOException if a temporary file or the output can't be written
+     */
+    public void write(Iterable<Person> people, SortOrder sortOrder, Function<Person, String> lineFormatter,
+                      Writer writer) throws IOException {
+        spilledRuns = 0;
+        mergePasses = 0;
+
+        if(sortOrder == SortOrder.UNSORTED) {
+            for(Person person : people) {
+                checkInterruption();
+                writer.write(lineFormatter.apply(person));
+            }
+            return;
+        }
+
+        List<Path> runs = new ArrayList<>();
+        try {
+            List<SortedLine> lines = new ArrayList<>();
+            long usedMemory = 0;
+
+            for(Person person : people) {
+                checkInterruption();
+
+                SortedLine line = new SortedLine(sortOrder.key(person), lineFormatter.apply(person));
+                lines.add(line);
+                usedMemory += line.estimateMemory();
+
+                if(usedMemory >= memoryBudget) {
+                    runs.add(spillRun(lines));
+                    lines.clear();
+                    usedMemory = 0;
+                }
+            }
+
+            if(runs.isEmpty()) {
+                lines.sort(Comparator.naturalOrder());
+                for(SortedLine line : lines) {
+                    writer.write(line.text);
+                }
+                return;
+            }
+
+            if(!lines.isEmpty()) {
+                runs.add(spillRun(lines));
+            }
+            lines = null;
+
+            while (runs.size() > mergeFanIn) {
+                mergePass(runs);
+            }
+            mergeRuns(runs, line -> writer.write(line.text));
+        } finally {
+            for(Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Sorts the lines and writes them to a new temporary file.
+     *
+     * @param lines the lines collected since the last run
+     * @return the path of the run
+     */
+    private Path spillRun(List<SortedLine> lines) throws IOException {
+        lines.sort(Comparator.naturalOrder());
+
+        Path run = Files.createTempFile("registry-sort-run", ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), bufferSize))) {
+            output.writeInt(lines.size());
+            for(SortedLine line : lines) {
+                writeLine(output, line);
+            }
+        }
+
+        spilledRuns++;
+        return run;
+    }
+
+    /**
+     * Merges the runs in groups of the fan-in to longer intermediate runs, that replace them at the end of the list.
+     * The merged runs are deleted.
+     *
+     * @param runs the runs to be merged, more than the fan-in
+     */
+    private void mergePass(List<Path> runs) throws IOException {
+        int groups = (runs.size() + mergeFanIn - 1) / mergeFanIn;
+
+        for(int i = 0; i < groups && runs.size() > 1; i++) {
+            List<Path> group = new ArrayList<>(runs.subList(0, Math.min(mergeFanIn, runs.size())));
+            runs.subList(0, group.size()).clear();
+
+            try {
+                Path mergedRun = Files.createTempFile("registry-sort-run", ".tmp");
+                runs.add(mergedRun);
+
+                try (DataOutputStream output = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(mergedRun), bufferSize))) {
+                    output.writeInt(countLines(group));
+                    mergeRuns(group, line -> writeLine(output, line));
+                }
+            } finally {
+                for(Path run : group) {
+                    Files.deleteIfExists(run);
+                }
+            }
+        }
+
+        mergePasses++;
+    }
+
+    /**
+     * Merges the sorted runs into the consumer, reading only one line of each run at a time.
+     */
+    private void mergeRuns(List<Path> runs, LineConsumer consumer) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(runs.size(), Comparator.comparing((RunReader reader) -> reader.current));
+        List<RunReader> readers = new ArrayList<>(runs.size());
+
+        try {
+            for(Path run : runs) {
+                RunReader reader = new RunReader(run, bufferSize);
+                readers.add(reader);
+                if(reader.next()) {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                checkInterruption();
+
+                RunReader reader = queue.poll();
+                consumer.accept(reader.current);
+
+                if(reader.next()) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            for(RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static int countLines(List<Path> runs) throws IOException {
+        int lines = 0;
+
+        for(Path run : runs) {
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(run))) {
+                lines += input.readInt();
+            }
+        }
+
+        return lines;
+    }
+
+    private static void checkInterruption() throws InterruptedIOException {
+        if(Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interruption occurred while sorting the registry");
+        }
+    }
+
+    private static void writeLine(DataOutputStream output, SortedLine line) throws IOException {
+        writeString(output, line.key);
+        writeString(output, line.text);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives the merged lines, like the output or an intermediate run.
+     */
+    @FunctionalInterface
+    private interface LineConsumer {
+        void accept(SortedLine line) throws IOException;
+    }
+
+    /**
+     * A line to be written and its sort key.
+     */
+    private static class SortedLine implements Comparable<SortedLine> {
+        final String key;
+        final String text;
+
+        SortedLine(String key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+
+        long estimateMemory() {
+            return 2L * (key.length() + text.length()) + LINE_OVERHEAD_BYTES;
+        }
+
+        @Override
+        public int compareTo(SortedLine other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    /**
+     * Reads a sorted run line by line.
+     */
+    private static class RunReader implements Closeable {
+        private final DataInputStream input;
+        private int remainingLines;
+        private SortedLine current;
+
+        RunReader(Path run, int bufferSize) throws IOException {
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), bufferSize));
+            remainingLines = input.readInt();
+        }
+
+        /**
+         * Reads the next line of the run.
+         * @return false at the end of the run
+         */
+        boolean next() throws IOException {
+            if(remainingLines == 0) {
+                current = null;
+                return false;
+            }
+
+            remainingLines--;
+            current = new SortedLine(readString(input), readString(input));
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+
+/**
+ * A person parsed from an imported file, together with the data of its source file
+ * that is needed to resolve conflicts between files.
+ */
+class ImportedPerson {
+    private final Person person;
+    private final long lastModified;
+    private final int sourcePriority;
+
+    ImportedPerson(Person person, long lastModified, int sourcePriority) {
+        this.person = person;
+        this.lastModified = lastModified;
+        this.sourcePriority = sourcePriority;
+    }
+
+    Person getPerson() {
+        return person;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    int getSourcePriority() {
+        return sourcePriority;
+    }
+}
@@ -0,0 +1,157 @@
+package person_registry.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream that writes gzip compressed data, compressing blocks of the data on multiple threads.
+ *
+ * Every block is compressed to a separate gzip member, and the members are written in order.
+ * Concatenated gzip members form a valid gzip file, that any gzip reader, including GZIPInputStream, can read.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    /**
+     * The default size of the uncompressed blocks.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    private byte[] block;
+    private int blockLength;
+    private boolean closed;
+
+    /**
+     * Class constructor that creates a stream with the default block size, using every available processor.
+     *
+     * @param out the stream to write the compressed data to
+     */
+    public ParallelGzipOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Class constructor that creates a stream with the given block size and number of threads.
+     * At most twice as many blocks as threads are kept in the memory.
+     *
+     * @param out the stream to write the compressed data to
+     * @param blockSize the size of the uncompressed blocks
+     * @param threadCount the number of compressing threads
+     */
+    public ParallelGzipOutputStream(OutputStream out, int blockSize, int threadCount) {
+        this.out = out;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = 2 * threadCount;
+        this.block = new byte[blockSize];
+        this.executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "gzip-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[blockLength++] = (byte) b;
+
+        if(blockLength == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            int copied = Math.min(length, blockSize - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, copied);
+            blockLength += copied;
+            offset += copied;
+            length -= copied;
+
+            if(blockLength == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Compresses the buffered data and writes every compressed block to the underlying stream.
+     *
+     * @throws IOException if the data can't be compressed or written
+     */
+    @Override
+    public void flush() throws IOException {
+        submitBlock();
+
+        while (!pendingBlocks.isEmpty()) {
+            writeFirstPendingBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            flush();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if(blockLength == 0) {
+            return;
+        }
+
+        byte[] data = block;
+        int length = blockLength;
+        pendingBlocks.add(executor.submit(() -> compress(data, length)));
+
+        block = new byte[blockSize];
+        blockLength = 0;
+
+        while (pendingBlocks.size() > maxPendingBlocks) {
+            writeFirstPendingBlock();
+        }
+    }
+
+    private void writeFirstPendingBlock() throws IOException {
+        try {
+            out.write(pendingBlocks.removeFirst().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interruption occurred while compressing data");
+        } catch (ExecutionException e) {
+            throw new IOException("Exception occurred during compressing data", e.getCause());
+        }
+    }
+
+    private static byte[] compress(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data, 0, length);
+        }
+
+        return compressed.toByteArray();
+    }
+}
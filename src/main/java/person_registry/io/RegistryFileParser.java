@@ -0,0 +1,201 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Parses the lines of a registry file to Person objects.
+ * Every parser has its own first line and separator characters,
+ * so multiple registry files can be parsed at the same time.
+ *
+ * If the parser has a reject report, the malformed lines and the lines with invalid data are written to the report,
+ * otherwise the malformed lines are logged one by one.
+ */
+public class RegistryFileParser {
+    private String firstLine;
+    private String nameNumberSeparator = ":";
+    private String numberEmailSeparator = ",";
+    private int lineNumber;
+
+    private final Consumer<String> exceptionLogger;
+    private final RejectReport rejectReport;
+
+    /**
+     * Class constructor that creates a parser with the separator characters of the given first line.
+     *
+     * @param firstLine the expected structure of the registry file, like "Name: Number, Email"
+     * @param exceptionLogger receives the messages about lines that can't be processed
+     */
+    public RegistryFileParser(String firstLine, Consumer<String> exceptionLogger) {
+        this(firstLine, exceptionLogger, null);
+    }
+
+    /**
+     * Class constructor that creates a parser, that reports the rejected lines to the given report.
+     *
+     * @param firstLine the expected structure of the registry file, like "Name: Number, Email"
+     * @param exceptionLogger receives the messages about a file that can't be processed
+     * @param rejectReport receives the malformed lines and the lines with invalid data, or null to log the malformed lines
+     */
+    public RegistryFileParser(String firstLine, Consumer<String> exceptionLogger, RejectReport rejectReport) {
+        this.firstLine = firstLine;
+        this.exceptionLogger = exceptionLogger;
+        this.rejectReport = rejectReport;
+
+        declareSeparatorCharacters();
+    }
+
+    public String getFirstLine() {
+        return firstLine;
+    }
+
+    public String getNameNumberSeparator() {
+        return nameNumberSeparator;
+    }
+
+    public String getNumberEmailSeparator() {
+        return numberEmailSeparator;
+    }
+
+    /**
+     * Reads the first non-empty line of a registry file, that should look something like: "Name: Number, Email".
+     * If it matches the expected structure, the separator characters are declared based on it.
+     *
+     * @param reader the reader of the registry file
+     * @return whether the first line matches the expected structure
+     * @throws IOException if the file can't be read
+     */
+    public boolean readFirstLine(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isEmpty()) {
+                if(line.toLowerCase().contains("name")) {
+                    firstLine = line;
+                    declareSeparatorCharacters();
+                    return true;
+                } else {
+                    exceptionLogger.accept("First non-empty line doesn't match expected.\n\tFirst line in file: " + line
+                            + "\n\tExpected structure: " + firstLine + "\n\tFile can't be processed.");
+                    return false;
+                }
+            }
+        }
+
+        exceptionLogger.accept("The file is empty, it can't be processed.");
+        return false;
+    }
+
+    /**
+     * Reads the lines following the first line and tries to parse every non-empty line to a Person.
+     * Each successfully parsed person is passed to the consumer with its line number, in the order of the lines.
+     * A person with an invalid phone number or email address is parsed successfully, but its line is reported too.
+     *
+     * @param reader the reader of the registry file, positioned after the first line
+     * @param personConsumer receives the parsed people and the numbers of their lines
+     * @return the number of successfully parsed people
+     * @throws InterruptedIOException if the thread is interrupted during the processing
+     * @throws IOException if the file can't be read
+     */
+    public int readPeople(BufferedReader reader, ObjIntConsumer<Person> personConsumer) throws IOException {
+        int parsedPeople = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if(Thread.currentThread().isInterrupted()){
+                throw new InterruptedIOException("Interruption occurred while processing registry file");
+            }
+
+            if(line.isEmpty())
+                continue;
+
+            Person person = parseLine(line);
+            if (person != null) {
+                checkPerson(person, line);
+                personConsumer.accept(person, lineNumber);
+                parsedPeople++;
+            } else if(rejectReport != null) {
+                rejectReport.reject(lineNumber, RejectReason.MALFORMED_LINE, line);
+            } else {
+                exceptionLogger.accept("Could not create a Person object based on line '" + line + "'");
+            }
+        }
+
+        return parsedPeople;
+    }
+
+    /**
+     * Creates a new Person object based on the given registry file line.
+     *
+     * @param line the data line read from a file
+     * @return The new Person object if the data line is properly formatted, otherwise null
+     */
+    public Person processLine(String line){
+        Person person = parseLine(line);
+
+        if(person == null) {
+            exceptionLogger.accept("Exception occurred during processing line: '" + line + "'");
+        }
+
+        return person;
+    }
+
+    private Person parseLine(String line) {
+        try {
+            String name = line.split(nameNumberSeparator)[0];
+            String number = line.split(nameNumberSeparator)[1].split(numberEmailSeparator)[0];
+            String email = line.split(nameNumberSeparator)[1].split(numberEmailSeparator)[1];
+
+            return new Person(name, number, email);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reports the line of a person, that has an invalid phone number or email address, once with every problem.
+     */
+    private void checkPerson(Person person, String line) throws InterruptedIOException {
+        if(rejectReport == null) {
+            return;
+        }
+
+        Set<RejectReason> reasons = EnumSet.noneOf(RejectReason.class);
+        if(!isValid(person.getPhoneDialingCode())) {
+            reasons.add(RejectReason.INVALID_PHONE);
+        }
+        if(!isValid(person.getEmail())) {
+            reasons.add(RejectReason.INVALID_EMAIL);
+        }
+
+        if(!reasons.isEmpty()) {
+            rejectReport.reject(lineNumber, reasons, line);
+        }
+    }
+
+    private static boolean isValid(String value) {
+        return value != null && !value.equalsIgnoreCase("invalid");
+    }
+
+    /**
+     * It processes the first line of a registry file and saves the two separator characters.
+     * The default separator of name and number is ':'.
+     * The default separator of number and email is ','.
+     */
+    private void declareSeparatorCharacters(){
+        String schema = firstLine.trim().toLowerCase();
+        schema = schema.replaceFirst("name", "");
+        nameNumberSeparator = schema.substring(0,1);
+        schema = schema.trim().substring(1);
+        schema = schema.replaceFirst("number", "");
+        numberEmailSeparator = schema.substring(0,1);
+    }
+}
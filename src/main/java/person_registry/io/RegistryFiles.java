@@ -0,0 +1,92 @@
+package person_registry.io;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Helper class to open registry files for reading and writing.
+ * Registry files may be gzip compressed, that is handled transparently:
+ * a compressed file is recognised by its content when it is read, and by its ".gz" extension when it is written.
+ */
+public class RegistryFiles {
+    /**
+     * The first two bytes of every gzip file.
+     */
+    private static final int GZIP_MAGIC_BYTE_1 = 0x1f;
+    private static final int GZIP_MAGIC_BYTE_2 = 0x8b;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Opens a registry file for reading.
+     * A compressed file is decompressed on a separate thread, so decompression overlaps with parsing.
+     *
+     * @param file the registry file, compressed or not
+     * @return the reader of the file's content
+     * @throws IOException if the file can't be opened
+     */
+    public static BufferedReader openReader(File file) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+
+        try {
+            if(isCompressed(input)) {
+                input = new AsyncInputStream(new GZIPInputStream(input, BUFFER_SIZE), "decompressor-" + file.getName());
+            }
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+
+        return new BufferedReader(new InputStreamReader(input), BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a registry file for writing.
+     * If the path ends with ".gz", the file is compressed on multiple threads.
+     *
+     * @param path the path of the registry file
+     * @return the writer of the file's content
+     * @throws IOException if the file can't be created
+     */
+    public static BufferedWriter openWriter(String path) throws IOException {
+        OutputStream output = new FileOutputStream(path);
+
+        if(isCompressedPath(path)) {
+            output = new ParallelGzipOutputStream(output);
+        }
+
+        return new BufferedWriter(new OutputStreamWriter(output), BUFFER_SIZE);
+    }
+
+    /**
+     * Decides whether a registry file written to the given path is compressed.
+     *
+     * @param path the path of the registry file
+     * @return whether the path has the ".gz" extension
+     */
+    public static boolean isCompressedPath(String path) {
+        return path.toLowerCase().endsWith(".gz");
+    }
+
+    /**
+     * Decides whether a registry file is compressed, by the first two bytes of its content.
+     *
+     * @param file the registry file
+     * @return whether the file starts with the gzip magic bytes
+     * @throws IOException if the file can't be read
+     */
+    public static boolean isCompressed(File file) throws IOException {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file), 2)) {
+            return isCompressed(input);
+        }
+    }
+
+    private static boolean isCompressed(InputStream input) throws IOException {
+        input.mark(2);
+        int firstByte = input.read();
+        int secondByte = input.read();
+        input.reset();
+
+        return firstByte == GZIP_MAGIC_BYTE_1 && secondByte == GZIP_MAGIC_BYTE_2;
+    }
+}
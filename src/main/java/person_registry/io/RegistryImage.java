@@ -0,0 +1,292 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * RegistryImage class represents a binary snapshot of the registry, that can be loaded much faster than a registry file.
+ * The people in the image are already validated and sorted by their name.
+ *
+ * The image remembers the registry file it was processed from.
+ * If that file is modified after the image was made, the image is considered stale.
+ *
+ * The image starts with an index of the record offsets, so a read image is not decoded at once:
+ * its people are decoded from the memory-mapped file when they are accessed,
+ * and a person is found by a binary search on the index, that only decodes the names on its path.
+ */
+public class RegistryImage {
+    /**
+     * Identifies an image file, the characters "PRIM".
+     */
+    private static final int MAGIC_NUMBER = 0x5052494D;
+
+    /**
+     * Version of the binary format, it has to be increased on every format change.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    private final String sourcePath;
+    private final long sourceLastModified;
+    private final String firstLine;
+    private final List<Person> people;
+
+    /**
+     * Class constructor that creates a new image.
+     *
+     * @param sourcePath the path of the registry file the people were processed from, or null
+     * @param sourceLastModified the last modification time of the registry file when it was processed
+     * @param firstLine the first line of the registry file, that defines the separator characters
+     * @param people the people of the registry
+     */
+    public RegistryImage(String sourcePath, long sourceLastModified, String firstLine, Collection<Person> people) {
+        this(sourcePath, sourceLastModified, firstLine, new ArrayList<>(people));
+    }
+
+    private RegistryImage(String sourcePath, long sourceLastModified, String firstLine, List<Person> people) {
+        this.sourcePath = sourcePath;
+        this.sourceLastModified = sourceLastModified;
+        this.firstLine = firstLine;
+        this.people = people;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public String getFirstLine() {
+        return firstLine;
+    }
+
+    /**
+     * Returns the people of the image.
+     * The people of a read image are sorted by their name, and they are decoded from the image file on every access.
+     *
+     * @return the people of the image
+     */
+    public List<Person> getPeople() {
+        return people;
+    }
+
+    /**
+     * Finds the person with the given name in a read image, by a binary search on the people sorted by their name.
+     * Only the names on the path of the search are decoded.
+     *
+     * @param name the person's name
+     * @return the person, or null if there is no such person in the image
+     * @throws IllegalStateException if the image was not read from a file
+     */
+    public Person find(String name) {
+        if(!(people instanceof MappedPeople)) {
+            throw new IllegalStateException("Only a read image is sorted by the names");
+        }
+
+        MappedPeople mappedPeople = (MappedPeople) people;
+        int low = 0;
+        int high = mappedPeople.size() - 1;
+
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = mappedPeople.getName(middle).compareTo(name);
+
+            if(comparison < 0) {
+                low = middle + 1;
+            } else if(comparison > 0) {
+                high = middle - 1;
+            } else {
+                return mappedPeople.get(middle);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Decides whether the registry file of the image was modified after the image was made.
+     * An image without a registry file, or with a deleted one is never stale.
+     *
+     * @return whether the image is stale
+     */
+    public boolean isStale() {
+        if(sourcePath == null) {
+            return false;
+        }
+
+        File sourceFile = new File(sourcePath);
+
+        return sourceFile.exists() && sourceFile.lastModified() != sourceLastModified;
+    }
+
+    /**
+     * Writes the image to the given path, the people are sorted by their name.
+     * The index of the record offsets is written before the records, so the sizes of the records are counted first.
+     * The image is written to a temporary file first, so an interrupted write never leaves a broken image behind.
+     *
+     * @param imagePath the path of the image file
+     * @throws IOException if the image can't be written
+     */
+    public void write(Path imagePath) throws IOException {
+        if(!(people instanceof MappedPeople)) {
+            people.sort(Comparator.comparing(Person::getName));
+        }
+
+        Path temporaryPath = imagePath.resolveSibling(imagePath.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(FORMAT_VERSION);
+            writeString(output, (sourcePath == null) ? "" : sourcePath);
+            output.writeLong(sourceLastModified);
+            writeString(output, firstLine);
+            output.writeInt(people.size());
+
+            long recordOffset = 0;
+            for(Person person : people) {
+                if(recordOffset > Integer.MAX_VALUE) {
+                    throw new IOException("Registry is too large for an image");
+                }
+                output.writeInt((int) recordOffset);
+                recordOffset += stringSize(person.getName()) + stringSize(person.getPhoneNumber())
+                        + stringSize(person.getEmail());
+            }
+
+            for(Person person : people) {
+                writeString(output, person.getName());
+                writeString(output, person.getPhoneNumber());
+                writeString(output, person.getEmail());
+            }
+        }
+
+        Files.move(temporaryPath, imagePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an image from the given path.
+     * The file is memory-mapped and only its header is decoded, the people are decoded when they are accessed.
+     *
+     * @param imagePath the path of the image file
+     * @return the image read from the file
+     * @throws NoSuchFileException if there is no image file
+     * @throws IOException if the file can't be read or it is not a valid image
+     */
+    public static RegistryImage read(Path imagePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(imagePath, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Registry image is too large to be mapped: " + channel.size() + " bytes");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if(buffer.remaining() < 8 || buffer.getInt() != MAGIC_NUMBER || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a registry image, or it was written by another version: " + imagePath);
+            }
+
+            String sourcePath = readString(buffer);
+            long sourceLastModified = buffer.getLong();
+            String firstLine = readString(buffer);
+            int size = buffer.getInt();
+
+            if(size < 0 || (long) size * Integer.BYTES > buffer.remaining()) {
+                throw new IOException("Registry image is broken: " + imagePath);
+            }
+
+            return new RegistryImage(sourcePath.isEmpty() ? null : sourcePath, sourceLastModified, firstLine,
+                    new MappedPeople(buffer, buffer.position(), size));
+        } catch (RuntimeException e) {
+            throw new IOException("Registry image is broken: " + imagePath, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Counts the bytes of a string written by {@link #writeString(DataOutputStream, String)}, without encoding it.
+     */
+    private static long stringSize(String value) {
+        long size = Integer.BYTES;
+
+        for(int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+
+            if(character < 0x80) {
+                size += 1;
+            } else if(character < 0x800) {
+                size += 2;
+            } else if(Character.isHighSurrogate(character) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else {
+                size += 3;
+            }
+        }
+
+        return size;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The people of a read image, decoded from the memory-mapped file on every access.
+     * The mapped buffer is only read through duplicates, so the people can be accessed from several threads.
+     */
+    private static class MappedPeople extends AbstractList<Person> {
+        private final ByteBuffer buffer;
+        private final int indexPosition;
+        private final int recordsPosition;
+        private final int size;
+
+        MappedPeople(ByteBuffer buffer, int indexPosition, int size) {
+            this.buffer = buffer;
+            this.indexPosition = indexPosition;
+            this.recordsPosition = indexPosition + size * Integer.BYTES;
+            this.size = size;
+        }
+
+        @Override
+        public Person get(int index) {
+            ByteBuffer record = record(index);
+
+            return Person.restore(readString(record), readString(record), readString(record));
+        }
+
+        String getName(int index) {
+            return readString(record(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private ByteBuffer record(int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+
+            ByteBuffer record = buffer.duplicate();
+            record.position(recordsPosition + buffer.getInt(indexPosition + index * Integer.BYTES));
+
+            return record;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports multiple registry files at once.
+ * Every file is parsed on its own thread with its own RegistryFileParser,
+ * then the people found in more than one file are resolved according to the conflict policy.
+ *
+ * The rejected lines of every file are reported to a ".rejects" file next to it, only their numbers are collected.
+ */
+public class RegistryImporter {
+    private final ConflictPolicy conflictPolicy;
+    private final String defaultFirstLine;
+    private final Consumer<String> exceptionLogger;
+    private final Map<RejectReason, Integer> rejectCounts = new EnumMap<>(RejectReason.class);
+
+    /**
+     * Class constructor that creates an importer with the given conflict policy.
+     *
+     * @param conflictPolicy decides which data is kept for a person found in more than one file
+     * @param defaultFirstLine the expected structure of the files, used in the error messages
+     * @param exceptionLogger receives the messages about files and lines that can't be processed
+     */
+    public RegistryImporter(ConflictPolicy conflictPolicy, String defaultFirstLine, Consumer<String> exceptionLogger) {
+        this.conflictPolicy = conflictPolicy;
+        this.defaultFirstLine = defaultFirstLine;
+        this.exceptionLogger = exceptionLogger;
+    }
+
+    /**
+     * Lists the registry files to be imported, ordered by their name.
+     * The given path can be a directory, that means every regular file in it,
+     * a glob pattern in the file name part, like "/data/registry-*.txt", or a single file.
+     * The duplicate and reject reports left next to earlier processed files are not listed.
+     *
+     * @param pathOrGlob the path of a directory, a file or a glob pattern
+     * @return the files to be imported
+     * @throws IOException if the directory can't be listed
+     */
+    public static List<Path> findRegistryFiles(String pathOrGlob) throws IOException {
+        String trimmedPath = pathOrGlob.trim();
+        int separatorIndex = Math.max(trimmedPath.lastIndexOf('/'), trimmedPath.lastIndexOf(File.separatorChar));
+        String fileNamePart = trimmedPath.substring(separatorIndex + 1);
+
+        if(fileNamePart.matches(".*[*?\\[{].*")) {
+            Path directory = Paths.get((separatorIndex < 0) ? "." : trimmedPath.substring(0, separatorIndex + 1));
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + fileNamePart);
+
+            return listRegularFiles(directory, file -> matcher.matches(file.getFileName()) && !isReportFile(file));
+        }
+
+        Path path = Paths.get(trimmedPath);
+        if(Files.isDirectory(path)) {
+            return listRegularFiles(path, file -> !isReportFile(file));
+        }
+
+        return Collections.singletonList(path);
+    }
+
+    /**
+     * Returns the number of rejected lines for every reason, in every file imported by the importer so far.
+     * @return the reject counts in the order of the reasons
+     */
+    public synchronized Map<RejectReason, Integer> getRejectCounts() {
+        return new EnumMap<>(rejectCounts);
+    }
+
+    /**
+     * Parses the given files in parallel and merges the people found in them.
+     * The result is not published anywhere, so the caller can add it to the registry in one step.
+     *
+     * @param files the files to be imported, the first file has the highest source priority
+     * @return the merged people mapped by their name
+     * @throws InterruptedIOException if the thread is interrupted during the import
+     * @throws IOException if any of the files can't be read
+     */
+    public Map<String, Person> importFiles(List<Path> files) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors())));
+
+        try {
+            List<Future<Map<String, ImportedPerson>>> parsedFiles = new ArrayList<>();
+            for(int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                int sourcePriority = i;
+                parsedFiles.add(executor.submit(() -> parseFile(file, sourcePriority)));
+            }
+
+            Map<String, ImportedPerson> mergedPeople = new HashMap<>();
+            for(Future<Map<String, ImportedPerson>> parsedFile : parsedFiles) {
+                for(Map.Entry<String, ImportedPerson> entry : parsedFile.get().entrySet()) {
+                    mergedPeople.merge(entry.getKey(), entry.getValue(), conflictPolicy::resolve);
+                }
+            }
+
+            Map<String, Person> result = new HashMap<>(mergedPeople.size() * 4 / 3 + 1);
+            for(ImportedPerson importedPerson : mergedPeople.values()) {
+                result.put(importedPerson.getPerson().getName(), importedPerson.getPerson());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interruption occurred while importing registry files");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses a single file with its own parser.
+     * If a person is in the file more than once, the last line is kept.
+     *
+     * @param file the file to be parsed
+     * @param sourcePriority the position of the file in the import
+     * @return the people of the file mapped by their name, empty if the file's first line doesn't match
+     * @throws IOException if the file can't be read
+     */
+    private Map<String, ImportedPerson> parseFile(Path file, int sourcePriority) throws IOException {
+        Map<String, ImportedPerson> people = new HashMap<>();
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        try (RejectReport rejectReport = new RejectReport(Paths.get(file + ".rejects"));
+             BufferedReader reader = RegistryFiles.openReader(file.toFile())) {
+            RegistryFileParser parser = new RegistryFileParser(defaultFirstLine,
+                    message -> exceptionLogger.accept(file.getFileName() + ": " + message), rejectReport);
+
+            if(parser.readFirstLine(reader)) {
+                parser.readPeople(reader,
+                        (person, lineNumber) -> people.put(person.getName(), new ImportedPerson(person, lastModified, sourcePriority)));
+            }
+
+            addRejectCounts(rejectReport.getRejectCounts());
+        }
+
+        return people;
+    }
+
+    private synchronized void addRejectCounts(Map<RejectReason, Integer> fileRejectCounts) {
+        fileRejectCounts.forEach((reason, count) -> rejectCounts.merge(reason, count, Integer::sum));
+    }
+
+    private static boolean isReportFile(Path file) {
+        String fileName = file.getFileName().toString();
+
+        return fileName.endsWith(".rejects") || fileName.endsWith(".duplicates");
+    }
+
+    private static List<Path> listRegularFiles(Path directory, Predicate<Path> filter) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(filter)
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+    }
+}
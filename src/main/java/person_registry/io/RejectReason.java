@@ -0,0 +1,33 @@
+package person_registry.io;
+
+/**
+ * The reason, why a line of a registry file is reported to the reject file.
+ */
+public enum RejectReason {
+    /**
+     * The line doesn't have a name, a phone number and an email address separated as declared by the first line.
+     * The line is skipped.
+     */
+    MALFORMED_LINE("Malformed line"),
+
+    /**
+     * The phone number of the line is invalid, the person is added with an "INVALID" phone number.
+     */
+    INVALID_PHONE("Invalid phone number"),
+
+    /**
+     * The email address of the line is invalid, the person is added with an "INVALID" email address.
+     */
+    INVALID_EMAIL("Invalid email address");
+
+    private final String description;
+
+    RejectReason(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,209 @@
+package person_registry.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reports the lines of a registry file, that were skipped or contain invalid data.
+ *
+ * The report is a tab separated file with the line number, the reason codes and the original text of every reported line,
+ * so the source data can be fixed in bulk and the rejected lines can be imported again.
+ * A line with more than one problem is reported once, with its reason codes separated by commas.
+ *
+ * The reported lines are collected in chunks, that are written to the file on a separate thread,
+ * so the parsing is not slowed down by the writing. The file is only created if there is a reported line.
+ */
+public class RejectReport implements Closeable {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int MAX_QUEUED_CHUNKS = 16;
+
+    /**
+     * Marks the end of the report in the queue.
+     */
+    private static final String END_OF_REPORT = "";
+
+    private final Path reportPath;
+    private final int[] rejectCounts = new int[RejectReason.values().length];
+    private final BlockingQueue<String> chunks = new ArrayBlockingQueue<>(MAX_QUEUED_CHUNKS);
+    private StringBuilder chunk = new StringBuilder();
+    private Thread writerThread;
+    private volatile IOException writeException;
+
+    /**
+     * Class constructor that creates a report for a registry file.
+     * A report left behind by an earlier processing of the file is deleted.
+     *
+     * @param reportPath the path of the report file
+     * @throws IOException if the earlier report can't be deleted
+     */
+    public RejectReport(Path reportPath) throws IOException {
+        this.reportPath = reportPath;
+
+        Files.deleteIfExists(reportPath);
+    }
+
+    public Path getReportPath() {
+        return reportPath;
+    }
+
+    /**
+     * Returns the number of reported lines for the given reason.
+     *
+     * @param reason the reason of the rejection
+     * @return the number of lines reported for the reason
+     */
+    public int getRejectCount(RejectReason reason) {
+        return rejectCounts[reason.ordinal()];
+    }
+
+    /**
+     * Returns the number of reported lines for every reason, that has at least one.
+     * @return the reject counts in the order of the reasons
+     */
+    public Map<RejectReason, Integer> getRejectCounts() {
+        Map<RejectReason, Integer> counts = new EnumMap<>(RejectReason.class);
+
+        for(RejectReason reason : RejectReason.values()) {
+            if(getRejectCount(reason) > 0) {
+                counts.put(reason, getRejectCount(reason));
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Reports a line of the registry file with a single reason.
+     *
+     * @param lineNumber the number of the line in the file
+     * @param reason the reason of the rejection
+     * @param line the original text of the line
+     * @throws InterruptedIOException if the thread is interrupted while waiting for the writer thread
+     */
+    public void reject(int lineNumber, RejectReason reason, String line) throws InterruptedIOException {
+        reject(lineNumber, EnumSet.of(reason), line);
+    }
+
+    /**
+     * Reports a line of the registry file once, with every reason of its rejection.
+     * The line is counted for each of its reasons.
+     *
+     * @param lineNumber the number of the line in the file
+     * @param reasons the reasons of the rejection, at least one
+     * @param line the original text of the line
+     * @throws InterruptedIOException if the thread is interrupted while waiting for the writer thread
+     */
+    public void reject(int lineNumber, Set<RejectReason> reasons, String line) throws InterruptedIOException {
+        chunk.append(lineNumber).append('\t');
+
+        boolean isFirstReason = true;
+        for(RejectReason reason : reasons) {
+            rejectCounts[reason.ordinal()]++;
+
+            if(!isFirstReason) {
+                chunk.append(',');
+            }
+            chunk.append(reason.name());
+            isFirstReason = false;
+        }
+
+        chunk.append('\t').append(line).append('\n');
+        if(chunk.length() >= CHUNK_SIZE) {
+            sendChunk();
+        }
+    }
+
+    /**
+     * Writes the remaining reported lines and closes the report file.
+     * The end of the report is always sent to the writer thread, even if the last lines can't be sent,
+     * so the writer thread never waits for more lines.
+     *
+     * @throws IOException if the report could not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if(chunk.length() > 0) {
+                sendChunk();
+            }
+        } finally {
+            if(writerThread != null) {
+                endReport();
+            }
+        }
+
+        if(writeException != null) {
+            throw writeException;
+        }
+    }
+
+    /**
+     * Sends the end of the report to the writer thread and waits for it to finish.
+     * If the thread is interrupted meanwhile, the writer thread is interrupted too, so it doesn't wait forever.
+     */
+    private void endReport() throws InterruptedIOException {
+        try {
+            chunks.put(END_OF_REPORT);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            writerThread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interruption occurred while writing the reject report");
+        }
+    }
+
+    private void sendChunk() throws InterruptedIOException {
+        if(writerThread == null) {
+            writerThread = new Thread(this::writeChunks, "reject-report-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+
+        try {
+            chunks.put(chunk.toString());
+            chunk = new StringBuilder();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interruption occurred while writing the reject report");
+        }
+    }
+
+    private void writeChunks() {
+        try (BufferedWriter writer = Files.newBufferedWriter(reportPath)) {
+            writer.write("Line\tReason\tText\n");
+
+            String nextChunk;
+            while ((nextChunk = chunks.take()) != END_OF_REPORT) {
+                writer.write(nextChunk);
+            }
+        } catch (IOException e) {
+            writeException = e;
+            discardChunks();
+        } catch (InterruptedException e) {
+            writeException = new InterruptedIOException("Interruption occurred while writing the reject report");
+        }
+    }
+
+    /**
+     * Takes the chunks after a failed write, so the parsing thread is never blocked by a full queue.
+     */
+    private void discardChunks() {
+        try {
+            while (chunks.take() != END_OF_REPORT) {
+                // the chunk is dropped
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package person_registry.io;
+
+import person_registry.model.Person;
+
+/**
+ * The order of the people in a saved registry file.
+ * People with the same phone number or email address are ordered by their name, so the order is always the same.
+ */
+public enum SortOrder {
+    /**
+     * The people are saved in the order of the registry, that may change from run to run.
+     */
+    UNSORTED("Unsorted") {
+        @Override
+        String key(Person person) {
+            return "";
+        }
+    },
+
+    /**
+     * The people are saved in the order of their name.
+     */
+    NAME("By name") {
+        @Override
+        String key(Person person) {
+            return person.getName();
+        }
+    },
+
+    /**
+     * The people are saved in the order of their phone number, the invalid phone numbers are saved last.
+     */
+    PHONE("By phone") {
+        @Override
+        String key(Person person) {
+            return validFirst(person.getPhoneNumber()) + KEY_SEPARATOR + person.getName();
+        }
+    },
+
+    /**
+     * The people are saved in the order of their email address, the invalid email addresses are saved last.
+     */
+    EMAIL("By email") {
+        @Override
+        String key(Person person) {
+            return validFirst(person.getEmail()) + KEY_SEPARATOR + person.getName();
+        }
+    };
+
+    /**
+     * Separates the sort key from the name, it is smaller than any character of the sort key.
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    /**
+     * Replaces an invalid value, so it is greater than any valid value.
+     */
+    private static final String INVALID_KEY = "\uffff";
+
+    private final String description;
+
+    SortOrder(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Returns the key of the person, that is compared to the keys of the other people.
+     *
+     * @param person the person to be saved
+     * @return the sort key of the person
+     */
+    abstract String key(Person person);
+
+    private static String validFirst(String value) {
+        return (value == null || value.equalsIgnoreCase("invalid")) ? INVALID_KEY : value;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -2,16 +2,25 @@ package person_registry.model;
 
 import org.apache.commons.validator.routines.EmailValidator;
 import person_registry.model.helper.PhoneNumberValidator;
+import person_registry.model.helper.StringPool;
 
 /**
  * Person class represents a person with name, phone number and email address.
  * A person is identified by its unique name.
  * Person class allows storing of phone number and email address for each person.
+ *
+ * To keep the memory footprint low in a large registry, the phone number is stored as a pooled dialing code
+ * and a numeric subscriber number, the email address as a local part and a pooled domain.
+ * The getters assemble the usual string forms.
  */
 public class Person {
+    private static final String INVALID = "INVALID";
+
     private String name;
-    private String phoneNumber;
-    private String email;
+    private String phoneDialingCode;
+    private int phoneSubscriberNumber;
+    private String emailLocalPart;
+    private String emailDomain;
 
     /**
      * Class constructor that creates a new Person object
@@ -30,6 +39,54 @@ public class Person {
         setEmail(email);
     }
 
+    private Person(){
+    }
+
+    /**
+     * Creates a Person object from data, that was already validated and formatted by a Person object,
+     * e.g. read back from a registry image. The data is not validated again, so it is much faster than the constructor.
+     *
+     * @param name the person's name as returned by getName
+     * @param phoneNumber the person's phone number as returned by getPhoneNumber
+     * @param email the person's email address as returned by getEmail
+     * @return the restored Person object
+     */
+    public static Person restore(String name, String phoneNumber, String email){
+        Person person = new Person();
+        person.name = name;
+
+        if(phoneNumber.equals(INVALID)) {
+            person.phoneDialingCode = INVALID;
+        } else {
+            person.phoneDialingCode = PhoneNumberValidator.getDialingCode(phoneNumber);
+            person.phoneSubscriberNumber = PhoneNumberValidator.getSubscriberNumber(phoneNumber);
+        }
+
+        if(email.equals(INVALID)) {
+            person.emailLocalPart = INVALID;
+        } else {
+            int separatorIndex = email.lastIndexOf('@');
+            person.emailLocalPart = email.substring(0, separatorIndex);
+            person.emailDomain = StringPool.intern(email.substring(separatorIndex + 1));
+        }
+
+        return person;
+    }
+
+    /**
+     * Class constructor that creates a copy of the given person.
+     * The copy can be modified without effecting the original person.
+     *
+     * @param person the person to be copied
+     */
+    public Person(Person person){
+        this.name = person.name;
+        this.phoneDialingCode = person.phoneDialingCode;
+        this.phoneSubscriberNumber = person.phoneSubscriberNumber;
+        this.emailLocalPart = person.emailLocalPart;
+        this.emailDomain = person.emailDomain;
+    }
+
     /**
      * Getter method that returns the name of the person.
      * @return the person's name as a String
@@ -56,7 +113,28 @@ public class Person {
      * @return the person's number as a String
      */
     public String getPhoneNumber() {
-        return phoneNumber;
+        if(phoneDialingCode == null || phoneDialingCode.equals(INVALID)) {
+            return phoneDialingCode;
+        }
+
+        return PhoneNumberValidator.joinPhoneNumber(phoneDialingCode, phoneSubscriberNumber);
+    }
+
+    /**
+     * Getter method that returns the pooled dialing code of the person's phone number, like "0620" or "+3620".
+     * Unlike getPhoneNumber, it doesn't assemble a new string.
+     * @return the dialing code, or "INVALID" if the phone number is invalid
+     */
+    public String getPhoneDialingCode() {
+        return phoneDialingCode;
+    }
+
+    /**
+     * Getter method that returns the subscriber part of the person's phone number, like 1234567 for "0620/123-4567".
+     * @return the seven digit subscriber number, or 0 if the phone number is invalid
+     */
+    public int getPhoneSubscriberNumber() {
+        return phoneSubscriberNumber;
     }
 
     /**
@@ -78,14 +156,17 @@ public class Person {
 
         if (PhoneNumberValidator.isPhoneNumberValid(phoneNumber)) {
             phoneNumber = PhoneNumberValidator.formatPhoneNumber(phoneNumber);
+            String dialingCode = PhoneNumberValidator.getDialingCode(phoneNumber);
+            int subscriberNumber = PhoneNumberValidator.getSubscriberNumber(phoneNumber);
 
-            if(this.phoneNumber != null && this.phoneNumber.equalsIgnoreCase(phoneNumber)){
+            if(dialingCode.equals(phoneDialingCode) && subscriberNumber == phoneSubscriberNumber){
                 return false;
             }
-            this.phoneNumber = phoneNumber;
+            this.phoneDialingCode = dialingCode;
+            this.phoneSubscriberNumber = subscriberNumber;
             return true;
-        } else if (this.phoneNumber == null) {
-            this.phoneNumber = "INVALID";
+        } else if (this.phoneDialingCode == null) {
+            this.phoneDialingCode = INVALID;
         } else {
             System.out.println("Person " + name + "'s phone number will not be modified as the given number is invalid");
         }
@@ -98,7 +179,29 @@ public class Person {
      * @return the person's email as a String
      */
     public String getEmail() {
-        return email;
+        if(emailDomain == null) {
+            return emailLocalPart;
+        }
+
+        return emailLocalPart + '@' + emailDomain;
+    }
+
+    /**
+     * Getter method that returns the part of the person's email address before the '@'.
+     * Unlike getEmail, it doesn't assemble a new string.
+     * @return the local part of the email address, or "INVALID" if the email address is invalid
+     */
+    public String getEmailLocalPart() {
+        return emailLocalPart;
+    }
+
+    /**
+     * Getter method that returns the pooled domain of the person's email address, like "gmail.com".
+     * Unlike getEmail, it doesn't assemble a new string.
+     * @return the domain of the email address, or null if the email address is invalid
+     */
+    public String getEmailDomain() {
+        return emailDomain;
     }
 
     /**
@@ -109,6 +212,7 @@ public class Person {
      * If the new email is identical with the stored email address, then no change takes place.
      *
      * Apache-commons' EmailValidator decides whether an email is valid or not.
+     * The domain of a valid email address is shared through the StringPool.
      *
      * @param email the new email address to be stored
      * @return whether a change in the person's phone number occurred
@@ -117,13 +221,16 @@ public class Person {
         email = email.trim().replaceAll("\"", "");
 
         if(EmailValidator.getInstance().isValid(email)) {
-            if(this.email != null && this.email.equalsIgnoreCase(email)){
+            String currentEmail = getEmail();
+            if(currentEmail != null && currentEmail.equalsIgnoreCase(email)){
                 return false;
             }
-            this.email = email;
+            int separatorIndex = email.lastIndexOf('@');
+            this.emailLocalPart = email.substring(0, separatorIndex);
+            this.emailDomain = StringPool.intern(email.substring(separatorIndex + 1));
             return true;
-        } else if (this.email == null) {
-            this.email = "INVALID";
+        } else if (this.emailLocalPart == null) {
+            this.emailLocalPart = INVALID;
         } else {
             System.out.println("Person " + name + "'s email address will not be modified as the given email is invalid");
         }
@@ -147,6 +254,9 @@ public class Person {
 
     @Override
     public String toString() {
+        String phoneNumber = getPhoneNumber();
+        String email = getEmail();
+
         return "Name: " + ((name == null)? "EMPTY" : name)  + '\n' +
                 "Number: " + ((phoneNumber == null)? "EMPTY" : phoneNumber) + '\n' +
                 "Email: " + ((email == null)? "EMPTY" : email) + '\n';
@@ -0,0 +1,598 @@
+package person_registry.model;
+
+import person_registry.model.event.RegistryChangeEvent;
+import person_registry.model.event.RegistryChangeListener;
+import person_registry.model.event.RegistryEventBus;
+import person_registry.model.helper.PersistentHashMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * PersonRegistry class stores the people of the registry mapped by their unique name.
+ * Every modification of the registry goes through this class,
+ * and it is published as a RegistryChangeEvent to the subscribers of the event bus.
+ *
+ * The stored Person objects should not be modified in place,
+ * a modified copy should be put to the registry instead, so the subscribers see both versions.
+ *
+ * A persistent registry stores the people in a PersistentHashMap instead of a ConcurrentHashMap.
+ * Every modification creates a new version of the registry, that shares its unchanged parts with the earlier versions,
+ * so the committed versions can be kept for undo and redo, and named checkpoints and snapshots cost nothing.
+ * The modifications of a persistent registry are serialised, they are slower than the modifications of a concurrent registry.
+ *
+ * The registry can be loaded in the background from a source, that can look people up by their name, like a registry image.
+ * While it is loading, a person not loaded yet is looked up in the source, so the registry can be used right away,
+ * but its size and its values only contain the people loaded so far.
+ */
+public class PersonRegistry {
+    /**
+     * The maximum number of committed versions kept for undo.
+     */
+    public static final int MAX_UNDO_VERSIONS = 100;
+
+    /**
+     * The people of a concurrent registry. The map is replaced at once by a bulk modification.
+     */
+    private volatile Map<String, Person> people;
+    private final RegistryEventBus eventBus = new RegistryEventBus();
+
+    /**
+     * Shared by the modifications of a concurrent registry, and held exclusively while a subscription is made,
+     * so at that moment no modification is between publishing its event and storing its person.
+     * It is also held exclusively while a bulk modification replaces the map of the people.
+     */
+    private final ReadWriteLock subscriptionLock = new ReentrantReadWriteLock();
+
+    private final boolean persistent;
+    private final Object versionLock = new Object();
+    private volatile PersistentHashMap<String, Person> version = PersistentHashMap.empty();
+    private PersistentHashMap<String, Person> committedVersion = version;
+    private final Deque<PersistentHashMap<String, Person>> undoVersions = new ArrayDeque<>();
+    private final Deque<PersistentHashMap<String, Person>> redoVersions = new ArrayDeque<>();
+    private final Map<String, PersistentHashMap<String, Person>> checkpoints = new LinkedHashMap<>();
+
+    private volatile Function<String, Person> loadingSource;
+    private final Set<String> removedLoadingNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Class constructor that creates a registry backed by a ConcurrentHashMap.
+     */
+    public PersonRegistry() {
+        this(false);
+    }
+
+    /**
+     * Class constructor that creates a registry.
+     *
+     * @param persistent whether the registry keeps its versions for undo, redo and checkpoints
+     */
+    public PersonRegistry(boolean persistent) {
+        this.persistent = persistent;
+        this.people = persistent ? null : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Decides whether the registry keeps its versions.
+     * @return whether the registry is persistent
+     */
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * Returns the event bus, that publishes the modifications of the registry.
+     * @return the registry's event bus
+     */
+    public RegistryEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Returns the person with the given name.
+     *
+     * @param name the person's name
+     * @return the person, or null if there is no such person in the registry
+     */
+    public Person get(String name) {
+        Person person = persistent ? version.get(name) : people.get(name);
+
+        return (person == null) ? getLoading(name) : person;
+    }
+
+    /**
+     * Decides whether a person with the given name is in the registry.
+     *
+     * @param name the person's name
+     * @return whether the person is in the registry
+     */
+    public boolean containsKey(String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * Adds the person to the registry, or replaces the person with the same name.
+     * An ADDED or UPDATED event is published.
+     *
+     * @param name the person's name
+     * @param person the person to be stored
+     * @return the replaced person, or null if the person is new in the registry
+     */
+    public Person put(String name, Person person) {
+        if(persistent) {
+            synchronized (versionLock) {
+                Person oldPerson = get(name);
+                version = version.put(name, person);
+                eventBus.publish((oldPerson == null) ? RegistryChangeEvent.Type.ADDED : RegistryChangeEvent.Type.UPDATED,
+                        oldPerson, person);
+                return oldPerson;
+            }
+        }
+
+        Person[] previous = new Person[1];
+
+        modify(name, (key, currentPerson) -> {
+            Person oldPerson = (currentPerson == null) ? getLoading(key) : currentPerson;
+            previous[0] = oldPerson;
+            eventBus.publish((oldPerson == null) ? RegistryChangeEvent.Type.ADDED : RegistryChangeEvent.Type.UPDATED,
+                    oldPerson, person);
+            return person;
+        });
+
+        return previous[0];
+    }
+
+    /**
+     * Adds every given person to the registry, or replaces the people with the same names.
+     * An ADDED or UPDATED event is published for each person.
+     *
+     * The people are published in one step, so the readers see either none or all of them:
+     * the new version of a persistent registry, or the new map of a concurrent registry is built aside,
+     * and it replaces the current one at once. The concurrent registry is copied, and its modifications wait meanwhile.
+     *
+     * @param newPeople the people to be stored, mapped by their name
+     */
+    public void putAll(Map<String, Person> newPeople) {
+        if(!persistent) {
+            subscriptionLock.writeLock().lock();
+            try {
+                Map<String, Person> oldPeople = people;
+                Map<String, Person> newMap = new ConcurrentHashMap<>(Math.max(16, (oldPeople.size() + newPeople.size()) * 4 / 3));
+                newMap.putAll(oldPeople);
+
+                for(Map.Entry<String, Person> entry : newPeople.entrySet()) {
+                    Person oldPerson = newMap.put(entry.getKey(), entry.getValue());
+                    if(oldPerson == null) {
+                        oldPerson = getLoading(entry.getKey());
+                    }
+                    eventBus.publish((oldPerson == null) ? RegistryChangeEvent.Type.ADDED : RegistryChangeEvent.Type.UPDATED,
+                            oldPerson, entry.getValue());
+                }
+
+                people = newMap;
+            } finally {
+                subscriptionLock.writeLock().unlock();
+            }
+            return;
+        }
+
+        synchronized (versionLock) {
+            PersistentHashMap<String, Person> oldVersion = version;
+            PersistentHashMap<String, Person> newVersion = oldVersion;
+            for(Map.Entry<String, Person> entry : newPeople.entrySet()) {
+                newVersion = newVersion.put(entry.getKey(), entry.getValue());
+            }
+
+            version = newVersion;
+
+            for(Map.Entry<String, Person> entry : newPeople.entrySet()) {
+                Person oldPerson = oldVersion.get(entry.getKey());
+                if(oldPerson == null) {
+                    oldPerson = getLoading(entry.getKey());
+                }
+                eventBus.publish((oldPerson == null) ? RegistryChangeEvent.Type.ADDED : RegistryChangeEvent.Type.UPDATED,
+                        oldPerson, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes the person with the given name from the registry.
+     * A DELETED event is published, if the person was in the registry.
+     *
+     * @param name the person's name
+     * @return the removed person, or null if there was no such person in the registry
+     */
+    public Person remove(String name) {
+        if(persistent) {
+            synchronized (versionLock) {
+                Person oldPerson = get(name);
+                if(oldPerson != null) {
+                    version = version.remove(name);
+                    markRemovedWhileLoading(name);
+                    eventBus.publish(RegistryChangeEvent.Type.DELETED, oldPerson, null);
+                }
+                return oldPerson;
+            }
+        }
+
+        Person[] previous = new Person[1];
+
+        modify(name, (key, currentPerson) -> {
+            Person oldPerson = (currentPerson == null) ? getLoading(key) : currentPerson;
+            if(oldPerson != null) {
+                previous[0] = oldPerson;
+                markRemovedWhileLoading(key);
+                eventBus.publish(RegistryChangeEvent.Type.DELETED, oldPerson, null);
+            }
+            return null;
+        });
+
+        return previous[0];
+    }
+
+    /**
+     * Subscribes a listener to the modifications of the registry, together with a snapshot of the registry,
+     * that contains every modification published before the subscription.
+     * The listener receives every later modification, so the snapshot and the events together give the registry.
+     *
+     * The snapshot of a persistent registry is its version at the subscription.
+     * The snapshot of a concurrent registry is a view of the people, that may also contain some later modifications,
+     * applying their events again leads to the same state.
+     *
+     * @param name the name of the subscriber thread
+     * @param maxBatchSize the maximum number of events passed to the listener in one call
+     * @param listener receives the events published after the snapshot
+     * @return the snapshot and the subscription, that has to be closed to stop receiving events
+     */
+    public SnapshotSubscription subscribeWithSnapshot(String name, int maxBatchSize, RegistryChangeListener listener) {
+        if(persistent) {
+            PersistentHashMap<String, Person> snapshotVersion;
+            long nextSequence;
+            RegistryEventBus.Subscription subscription;
+
+            synchronized (versionLock) {
+                snapshotVersion = version;
+                nextSequence = eventBus.getNextSequence();
+                subscription = eventBus.subscribe(name, maxBatchSize, listener);
+            }
+
+            return new SnapshotSubscription(snapshotVersion.values(), nextSequence, subscription);
+        }
+
+        subscriptionLock.writeLock().lock();
+        try {
+            return new SnapshotSubscription(values(), eventBus.getNextSequence(),
+                    eventBus.subscribe(name, maxBatchSize, listener));
+        } finally {
+            subscriptionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only view of the people in the registry.
+     * The people of a persistent registry are copied from its current version,
+     * the later modifications are not visible in the returned collection.
+     * The view of a concurrent registry follows its modifications, except the ones made by a later putAll.
+     *
+     * @return the people of the registry
+     */
+    public Collection<Person> values() {
+        return persistent ? version.values() : Collections.unmodifiableCollection(people.values());
+    }
+
+    /**
+     * Returns the number of people in the registry.
+     * @return the size of the registry
+     */
+    public int size() {
+        return persistent ? version.size() : people.size();
+    }
+
+    /* ************************************
+     * Loading methods
+     * ************************************/
+
+    /**
+     * Starts loading the registry from a source, the people not loaded yet are looked up in the source.
+     * The people have to be loaded one by one, then the loading has to be finished.
+     *
+     * @param source finds a person of the source by the name, it returns null if there is no such person
+     *
+     * @see #load(Person)
+     * @see #finishLoading()
+     */
+    public void startLoading(Function<String, Person> source) {
+        removedLoadingNames.clear();
+        loadingSource = source;
+    }
+
+    /**
+     * Loads a person of the source to the registry, and publishes an ADDED event.
+     * A person modified or removed since the loading started is not overwritten.
+     *
+     * @param person the person of the source
+     * @return whether the person was added to the registry
+     */
+    public boolean load(Person person) {
+        String name = person.getName();
+
+        if(persistent) {
+            synchronized (versionLock) {
+                if(version.containsKey(name) || removedLoadingNames.contains(name)) {
+                    return false;
+                }
+
+                version = version.put(name, person);
+                eventBus.publish(RegistryChangeEvent.Type.ADDED, null, person);
+                return true;
+            }
+        }
+
+        boolean[] loaded = new boolean[1];
+
+        modify(name, (key, currentPerson) -> {
+            if(currentPerson != null || removedLoadingNames.contains(key)) {
+                return currentPerson;
+            }
+
+            loaded[0] = true;
+            eventBus.publish(RegistryChangeEvent.Type.ADDED, null, person);
+            return person;
+        });
+
+        return loaded[0];
+    }
+
+    /**
+     * Finishes loading the registry, the source is not used any more.
+     * Every person of the source has to be loaded before.
+     */
+    public void finishLoading() {
+        loadingSource = null;
+        removedLoadingNames.clear();
+    }
+
+    /**
+     * Decides whether the registry is being loaded from a source.
+     * @return whether the loading is started and not finished yet
+     */
+    public boolean isLoading() {
+        return loadingSource != null;
+    }
+
+    /**
+     * Modifies a person of a concurrent registry atomically, the event of the modification has to be published
+     * by the remapping function, so the events of a person are in the order of its modifications.
+     */
+    private void modify(String name, BiFunction<String, Person, Person> remapping) {
+        subscriptionLock.readLock().lock();
+        try {
+            people.compute(name, remapping);
+        } finally {
+            subscriptionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up a person, that is not loaded from the source yet.
+     */
+    private Person getLoading(String name) {
+        Function<String, Person> source = loadingSource;
+        if(source == null || removedLoadingNames.contains(name)) {
+            return null;
+        }
+
+        return source.apply(name);
+    }
+
+    /**
+     * Remembers a removed name while the registry is loading, so the person is not loaded again from the source.
+     */
+    private void markRemovedWhileLoading(String name) {
+        if(loadingSource != null) {
+            removedLoadingNames.add(name);
+        }
+    }
+
+    /* ************************************
+     * Version methods of a persistent registry
+     * ************************************/
+
+    /**
+     * Returns the current version of a persistent registry, that is never modified.
+     * It can be read consistently while the registry is modified.
+     *
+     * @return the people of the registry mapped by their name
+     * @throws IllegalStateException if the registry is not persistent
+     */
+    public PersistentHashMap<String, Person> snapshot() {
+        checkPersistent();
+
+        return version;
+    }
+
+    /**
+     * Ends a batch of modifications, like the processing of a file, so it can be undone in one step.
+     * It does nothing if the registry is not persistent, or it was not modified since the last commit.
+     */
+    public void commitVersion() {
+        if(!persistent) {
+            return;
+        }
+
+        synchronized (versionLock) {
+            if(version == committedVersion) {
+                return;
+            }
+
+            pushUndoVersion(committedVersion);
+            redoVersions.clear();
+            committedVersion = version;
+        }
+    }
+
+    /**
+     * Restores the version before the last committed batch of modifications.
+     * The modifications since the last commit are committed first, so they are undone.
+     *
+     * @return whether there was a version to restore
+     * @throws IllegalStateException if the registry is not persistent
+     */
+    public boolean undo() {
+        checkPersistent();
+
+        synchronized (versionLock) {
+            commitVersion();
+            if(undoVersions.isEmpty()) {
+                return false;
+            }
+
+            redoVersions.push(committedVersion);
+            restore(undoVersions.pop());
+            return true;
+        }
+    }
+
+    /**
+     * Restores the version, that was undone last.
+     * Committing a new batch of modifications after an undo drops the versions, that could be redone.
+     *
+     * @return whether there was a version to restore
+     * @throws IllegalStateException if the registry is not persistent
+     */
+    public boolean redo() {
+        checkPersistent();
+
+        synchronized (versionLock) {
+            commitVersion();
+            if(redoVersions.isEmpty()) {
+                return false;
+            }
+
+            pushUndoVersion(committedVersion);
+            restore(redoVersions.pop());
+            return true;
+        }
+    }
+
+    /**
+     * Saves the current version with a name, so it can be restored later.
+     * The modifications since the last commit are committed first.
+     *
+     * @param name the name of the checkpoint, an earlier checkpoint with the same name is replaced
+     * @throws IllegalStateException if the registry is not persistent
+     */
+    public void checkpoint(String name) {
+        checkPersistent();
+
+        synchronized (versionLock) {
+            commitVersion();
+            checkpoints.put(name, committedVersion);
+        }
+    }
+
+    /**
+     * Restores the version saved with the given name, restoring it can be undone.
+     *
+     * @param name the name of the checkpoint
+     * @return whether there was a checkpoint with the name
+     * @throws IllegalStateException if the registry is not persistent
+     */
+    public boolean restoreCheckpoint(String name) {
+        checkPersistent();
+
+        synchronized (versionLock) {
+            PersistentHashMap<String, Person> checkpoint = checkpoints.get(name);
+            if(checkpoint == null) {
+                return false;
+            }
+
+            commitVersion();
+            if(checkpoint != committedVersion) {
+                pushUndoVersion(committedVersion);
+                redoVersions.clear();
+                restore(checkpoint);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the names of the checkpoints in the order they were saved.
+     * @return the checkpoint names
+     */
+    public List<String> getCheckpointNames() {
+        synchronized (versionLock) {
+            return new ArrayList<>(checkpoints.keySet());
+        }
+    }
+
+    /**
+     * Makes the given version current and committed.
+     * The differences between the versions are published as events,
+     * they are found without visiting the people shared by the two versions.
+     */
+    private void restore(PersistentHashMap<String, Person> restoredVersion) {
+        version.diff(restoredVersion, (name, oldPerson, newPerson) -> {
+            RegistryChangeEvent.Type type = (oldPerson == null) ? RegistryChangeEvent.Type.ADDED
+                    : (newPerson == null) ? RegistryChangeEvent.Type.DELETED : RegistryChangeEvent.Type.UPDATED;
+            eventBus.publish(type, oldPerson, newPerson);
+        });
+
+        version = restoredVersion;
+        committedVersion = restoredVersion;
+    }
+
+    private void pushUndoVersion(PersistentHashMap<String, Person> undoVersion) {
+        undoVersions.push(undoVersion);
+        if(undoVersions.size() > MAX_UNDO_VERSIONS) {
+            undoVersions.removeLast();
+        }
+    }
+
+    private void checkPersistent() {
+        if(!persistent) {
+            throw new IllegalStateException("Only a persistent registry keeps its versions");
+        }
+    }
+
+    /**
+     * A snapshot of the registry with a subscription to the modifications after it.
+     */
+    public static class SnapshotSubscription implements AutoCloseable {
+        private final Collection<Person> people;
+        private final long nextSequence;
+        private final RegistryEventBus.Subscription subscription;
+
+        private SnapshotSubscription(Collection<Person> people, long nextSequence, RegistryEventBus.Subscription subscription) {
+            this.people = people;
+            this.nextSequence = nextSequence;
+            this.subscription = subscription;
+        }
+
+        public Collection<Person> getPeople() {
+            return people;
+        }
+
+        /**
+         * Returns the sequence number of the first event, that is passed to the listener.
+         * @return the sequence number of the first event after the snapshot
+         */
+        public long getNextSequence() {
+            return nextSequence;
+        }
+
+        /**
+         * Stops the subscription.
+         */
+        @Override
+        public void close() {
+            subscription.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package person_registry.model.event;
+
+import person_registry.model.Person;
+
+/**
+ * RegistryChangeEvent class represents a single modification of the registry.
+ * Every event has a unique sequence number, that shows the order of the modifications.
+ */
+public class RegistryChangeEvent {
+    /**
+     * The kind of modification.
+     */
+    public enum Type {
+        ADDED,
+        UPDATED,
+        DELETED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final Person oldPerson;
+    private final Person newPerson;
+
+    /**
+     * Class constructor that creates a new event.
+     *
+     * @param sequence the sequence number of the event
+     * @param type the kind of modification
+     * @param oldPerson the person before the modification, null if the person is added
+     * @param newPerson the person after the modification, null if the person is deleted
+     */
+    public RegistryChangeEvent(long sequence, Type type, Person oldPerson, Person newPerson) {
+        this.sequence = sequence;
+        this.type = type;
+        this.oldPerson = oldPerson;
+        this.newPerson = newPerson;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Person getOldPerson() {
+        return oldPerson;
+    }
+
+    public Person getNewPerson() {
+        return newPerson;
+    }
+
+    /**
+     * Returns the name of the modified person.
+     * @return the person's name as a String
+     */
+    public String getName() {
+        return (newPerson != null) ? newPerson.getName() : oldPerson.getName();
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + getName();
+    }
+}
@@ -0,0 +1,26 @@
+package person_registry.model.event;
+
+import java.util.List;
+
+/**
+ * Receives the modifications of the registry in batches.
+ *
+ * @see RegistryEventBus#subscribe(String, int, RegistryChangeListener)
+ */
+public interface RegistryChangeListener {
+    /**
+     * Called with the next batch of events, in the order of their sequence numbers.
+     *
+     * @param events the batch of events, never empty
+     */
+    void onChanges(List<RegistryChangeEvent> events);
+
+    /**
+     * Called if the listener was too slow and some events were overwritten before it could read them.
+     * The listener should rebuild its state from the registry itself.
+     *
+     * @param lostEvents the number of events that were lost
+     */
+    default void onChangesLost(long lostEvents) {
+    }
+}
@@ -0,0 +1,176 @@
+package person_registry.model.event;
+
+import person_registry.model.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Distributes the modifications of the registry to the subscribed listeners.
+ *
+ * The events are stored in a fixed size ring buffer, publishing an event never takes a lock and never waits.
+ * Every subscriber reads the ring buffer on its own thread, in batches.
+ * If a subscriber falls behind by more than the capacity of the buffer, the oldest events are overwritten
+ * and the subscriber is told how many events it has lost, so a slow subscriber never stalls the registry.
+ */
+public class RegistryEventBus {
+    /**
+     * The default number of events kept in the ring buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Time a subscriber thread sleeps if there is no new event.
+     */
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private final AtomicReferenceArray<RegistryChangeEvent> ringBuffer;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * Class constructor that creates an event bus with the default capacity.
+     */
+    public RegistryEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Class constructor that creates an event bus with the given capacity.
+     *
+     * @param capacity the number of events kept in the ring buffer, it has to be a power of two
+     */
+    public RegistryEventBus(int capacity) {
+        if(capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity has to be a power of two: " + capacity);
+        }
+
+        ringBuffer = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Publishes a new event to the subscribers.
+     * It can be called from multiple threads at the same time.
+     *
+     * @param type the kind of modification
+     * @param oldPerson the person before the modification, null if the person is added
+     * @param newPerson the person after the modification, null if the person is deleted
+     * @return the published event
+     */
+    public RegistryChangeEvent publish(RegistryChangeEvent.Type type, Person oldPerson, Person newPerson) {
+        long sequence = nextSequence.getAndIncrement();
+        RegistryChangeEvent event = new RegistryChangeEvent(sequence, type, oldPerson, newPerson);
+
+        ringBuffer.set((int) (sequence & mask), event);
+
+        return event;
+    }
+
+    /**
+     * Returns the sequence number that the next published event will get.
+     * @return the next sequence number
+     */
+    public long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Subscribes a listener to the events published from now on.
+     * The listener is called on a new daemon thread, until the subscription is closed.
+     *
+     * @param name the name of the subscriber thread
+     * @param maxBatchSize the maximum number of events passed to the listener in one call
+     * @param listener receives the events
+     * @return the subscription, that can be closed to stop receiving events
+     */
+    public Subscription subscribe(String name, int maxBatchSize, RegistryChangeListener listener) {
+        Subscription subscription = new Subscription(nextSequence.get(), maxBatchSize, listener);
+
+        Thread thread = new Thread(subscription::run, name);
+        thread.setDaemon(true);
+        thread.start();
+
+        return subscription;
+    }
+
+    /**
+     * A listener's position in the ring buffer.
+     */
+    public class Subscription implements AutoCloseable {
+        private final int maxBatchSize;
+        private final RegistryChangeListener listener;
+        private long cursor;
+        private volatile boolean closed;
+
+        private Subscription(long cursor, int maxBatchSize, RegistryChangeListener listener) {
+            this.cursor = cursor;
+            this.maxBatchSize = maxBatchSize;
+            this.listener = listener;
+        }
+
+        /**
+         * Stops the subscription, the listener is not called after the current batch.
+         */
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private void run() {
+            List<RegistryChangeEvent> batch = new ArrayList<>();
+
+            while (!closed) {
+                long lostEvents = readBatch(batch);
+
+                try {
+                    if(lostEvents > 0) {
+                        listener.onChangesLost(lostEvents);
+                    }
+                    if(!batch.isEmpty()) {
+                        listener.onChanges(batch);
+                        batch = new ArrayList<>();
+                    } else {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("Registry change listener failed: " + e.getMessage());
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+
+        /**
+         * Reads the available events from the ring buffer to the batch.
+         *
+         * @param batch the list to add the events to
+         * @return the number of events, that were overwritten before they could be read
+         */
+        private long readBatch(List<RegistryChangeEvent> batch) {
+            long lostEvents = 0;
+
+            while (batch.size() < maxBatchSize) {
+                RegistryChangeEvent event = ringBuffer.get((int) (cursor & mask));
+
+                if(event == null || event.getSequence() < cursor) {
+                    break;
+                }
+
+                if(event.getSequence() > cursor) {
+                    long oldestAvailable = event.getSequence() - mask;
+                    lostEvents += oldestAvailable - cursor;
+                    cursor = oldestAvailable;
+                    continue;
+                }
+
+                batch.add(event);
+                cursor++;
+            }
+
+            return lostEvents;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package person_registry.model.helper;
+
+/**
+ * Helper class to remember a large number of strings in a compact way.
+ * A Bloom filter never forgets a string that was added to it,
+ * but it may falsely report a string as added with a small probability.
+ */
+public class BloomFilter {
+    /**
+     * Added to the hash of a string before it is mixed again to the second hash of the double hashing.
+     */
+    private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Class constructor that creates a Bloom filter sized for the expected number of strings.
+     *
+     * @param expectedInsertions the expected number of strings to be added
+     * @param falsePositiveRate the accepted probability of falsely reporting a string as added, e.g. 0.01
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long insertions = Math.max(1, expectedInsertions);
+        long optimalBitCount = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+
+        bits = new long[(int) Math.max(1, (optimalBitCount + 63) / 64)];
+        bitCount = bits.length * 64L;
+        hashCount = (int) Math.max(1, Math.round((double) bitCount / insertions * Math.log(2)));
+    }
+
+    /**
+     * Decides whether the string might have been added to the filter.
+     *
+     * @param value the string in question
+     * @return false if the string was surely not added, true if it was probably added
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 + SECOND_HASH_SEED) | 1;
+
+        for(int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(hash1, hash2, i);
+            if((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the string to the filter.
+     *
+     * @param value the string to be added
+     * @return true if the string was surely not added before, false if it was probably added before
+     */
+    public boolean add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 + SECOND_HASH_SEED) | 1;
+        boolean isNew = false;
+
+        for(int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(hash1, hash2, i);
+            long mask = 1L << index;
+            if((bits[(int) (index >>> 6)] & mask) == 0) {
+                bits[(int) (index >>> 6)] |= mask;
+                isNew = true;
+            }
+        }
+
+        return isNew;
+    }
+
+    /**
+     * Returns the i-th bit of a string, by double hashing with two 64 bit hashes.
+     */
+    private long bitIndex(long hash1, long hash2, int i) {
+        return ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * Calculates a 64 bit hash of the characters of a string, based on MurmurHash3.
+     * Four characters are mixed in at a time, so the hash doesn't suffer from the collisions of String.hashCode().
+     */
+    private static long hash(String value) {
+        long hash = value.length();
+        int length = value.length();
+        int i = 0;
+
+        for(; i + 4 <= length; i += 4) {
+            long block = value.charAt(i) | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32 | (long) value.charAt(i + 3) << 48;
+            hash ^= mixBlock(block);
+            hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+        }
+
+        long block = 0;
+        for(int shift = 0; i < length; i++, shift += 16) {
+            block |= (long) value.charAt(i) << shift;
+        }
+        hash ^= mixBlock(block);
+
+        return mix(hash);
+    }
+
+    private static long mixBlock(long block) {
+        block *= 0x87c37b91114253d5L;
+        block = Long.rotateLeft(block, 31);
+        block *= 0x4cf5ad432745937fL;
+
+        return block;
+    }
+
+    /**
+     * Spreads the bits of a 64 bit hash, the finalizer of MurmurHash3.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
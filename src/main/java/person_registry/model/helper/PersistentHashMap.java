@@ -0,0 +1,473 @@
+package person_registry.model.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * An immutable hash map implemented as a hash array mapped trie.
+ * Every modification returns a new map, that shares every unchanged node with the original one,
+ * so a modification only copies the nodes on the path of the modified key: at most 7 arrays of at most 32 elements.
+ * Keeping an earlier version of the map costs nothing, and it can be read from any thread without locking.
+ *
+ * Each level of the trie uses 5 bits of the key's hash, a branch node only stores its existing children,
+ * that are selected by a bitmap. Keys with the same hash are stored together in a collision node.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class PersistentHashMap<K, V> {
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    /**
+     * The root of the trie: null, an Entry, a BranchNode or a CollisionNode.
+     */
+    private final Object root;
+    private final int size;
+
+    private PersistentHashMap(Object root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the map without any entry
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value mapped to the key.
+     *
+     * @param key the key to look for
+     * @return the value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int hash = hash(key);
+        Object node = root;
+
+        for(int shift = 0; node != null; shift += BITS_PER_LEVEL) {
+            if(node instanceof Entry) {
+                Entry entry = (Entry) node;
+                return (entry.hash == hash && Objects.equals(entry.key, key)) ? (V) entry.value : null;
+            }
+            if(node instanceof CollisionNode) {
+                Entry entry = ((CollisionNode) node).find(key);
+                return (entry == null) ? null : (V) entry.value;
+            }
+
+            BranchNode branch = (BranchNode) node;
+            int bit = bit(hash, shift);
+            node = ((branch.bitmap & bit) == 0) ? null : branch.children[branch.index(bit)];
+        }
+
+        return null;
+    }
+
+    /**
+     * Decides whether the key is in the map.
+     *
+     * @param key the key to look for
+     * @return whether the key is in the map
+     */
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map, that maps the key to the value, and has every other entry of this map.
+     *
+     * @param key the key, not null
+     * @param value the value, not null
+     * @return the new map, or this map if the key was already mapped to the same value
+     */
+    public PersistentHashMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+
+        int[] sizeChange = new int[1];
+        Object newRoot = put(root, 0, new Entry(hash(key), key, value), sizeChange);
+
+        return (newRoot == root) ? this : new PersistentHashMap<>(newRoot, size + sizeChange[0]);
+    }
+
+    /**
+     * Returns a map, that has every entry of this map except the one with the given key.
+     *
+     * @param key the key to be removed
+     * @return the new map, or this map if the key is not in the map
+     */
+    public PersistentHashMap<K, V> remove(Object key) {
+        Object newRoot = remove(root, 0, hash(key), key);
+
+        return (newRoot == root) ? this : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Passes every entry of the map to the consumer, in no particular order.
+     *
+     * @param consumer receives the keys and the values
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> consumer) {
+        forEachEntry(root, entry -> consumer.accept((K) entry.key, (V) entry.value));
+    }
+
+    /**
+     * Returns the values of the map, in no particular order.
+     * @return a new read-only list of the values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        forEach((key, value) -> values.add(value));
+
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Passes every difference between this map and the other map to the consumer.
+     * The subtrees shared by the two maps are skipped, so comparing two versions of a map
+     * takes time proportional to the modifications between them, not to the size of the maps.
+     * The values are compared by identity.
+     *
+     * @param other the other map
+     * @param consumer receives the key, the value in this map and the value in the other map, null if it is missing
+     */
+    public void diff(PersistentHashMap<K, V> other, DiffConsumer<K, V> consumer) {
+        diff(root, other.root, 0, consumer);
+    }
+
+    /**
+     * Receives the differences of two maps.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    @FunctionalInterface
+    public interface DiffConsumer<K, V> {
+        /**
+         * Receives a key, that is mapped to different values in the two maps.
+         *
+         * @param key the key
+         * @param value the value in the first map, null if the key is missing from it
+         * @param otherValue the value in the other map, null if the key is missing from it
+         */
+        void accept(K key, V value, V otherValue);
+    }
+
+    /* ************************************
+     * Trie operations
+     * ************************************/
+
+    private static Object put(Object node, int shift, Entry newEntry, int[] sizeChange) {
+        if(node == null) {
+            sizeChange[0] = 1;
+            return newEntry;
+        }
+
+        if(node instanceof Entry) {
+            Entry entry = (Entry) node;
+
+            if(entry.hash == newEntry.hash && Objects.equals(entry.key, newEntry.key)) {
+                return (entry.value == newEntry.value) ? entry : newEntry;
+            }
+
+            sizeChange[0] = 1;
+            if(entry.hash == newEntry.hash) {
+                return new CollisionNode(entry.hash, new Entry[]{entry, newEntry});
+            }
+
+            return branchOf(entry, newEntry, shift);
+        }
+
+        if(node instanceof CollisionNode) {
+            CollisionNode collision = (CollisionNode) node;
+
+            if(collision.hash == newEntry.hash) {
+                return collision.put(newEntry, sizeChange);
+            }
+
+            sizeChange[0] = 1;
+            return branchOf(collision, newEntry, shift);
+        }
+
+        BranchNode branch = (BranchNode) node;
+        int bit = bit(newEntry.hash, shift);
+        int index = branch.index(bit);
+
+        if((branch.bitmap & bit) == 0) {
+            sizeChange[0] = 1;
+            return branch.insert(bit, index, newEntry);
+        }
+
+        Object child = branch.children[index];
+        Object newChild = put(child, shift + BITS_PER_LEVEL, newEntry, sizeChange);
+
+        return (newChild == child) ? branch : branch.replace(index, newChild);
+    }
+
+    /**
+     * Removes the key from the subtree.
+     * A branch node left with a single entry is replaced by the entry, so the trie never gets deeper than needed.
+     *
+     * @return the new subtree, the same subtree if the key is not in it, or null if the subtree became empty
+     */
+    private static Object remove(Object node, int shift, int hash, Object key) {
+        if(node == null) {
+            return null;
+        }
+
+        if(node instanceof Entry) {
+            Entry entry = (Entry) node;
+            return (entry.hash == hash && Objects.equals(entry.key, key)) ? null : entry;
+        }
+
+        if(node instanceof CollisionNode) {
+            return ((CollisionNode) node).remove(key);
+        }
+
+        BranchNode branch = (BranchNode) node;
+        int bit = bit(hash, shift);
+        if((branch.bitmap & bit) == 0) {
+            return branch;
+        }
+
+        int index = branch.index(bit);
+        Object child = branch.children[index];
+        Object newChild = remove(child, shift + BITS_PER_LEVEL, hash, key);
+
+        if(newChild == child) {
+            return branch;
+        }
+        if(newChild != null) {
+            if(branch.children.length == 1 && !(newChild instanceof BranchNode)) {
+                return newChild;
+            }
+            return branch.replace(index, newChild);
+        }
+
+        if(branch.children.length == 1) {
+            return null;
+        }
+        if(branch.children.length == 2) {
+            Object remaining = branch.children[1 - index];
+            if(!(remaining instanceof BranchNode)) {
+                return remaining;
+            }
+        }
+
+        return branch.delete(bit, index);
+    }
+
+    private static Object branchOf(Object node, Entry newEntry, int shift) {
+        int nodeHash = (node instanceof Entry) ? ((Entry) node).hash : ((CollisionNode) node).hash;
+        int nodeBit = bit(nodeHash, shift);
+        int newBit = bit(newEntry.hash, shift);
+
+        if(nodeBit == newBit) {
+            return new BranchNode(nodeBit, new Object[]{branchOf(node, newEntry, shift + BITS_PER_LEVEL)});
+        }
+
+        return (Integer.compareUnsigned(nodeBit, newBit) < 0)
+                ? new BranchNode(nodeBit | newBit, new Object[]{node, newEntry})
+                : new BranchNode(nodeBit | newBit, new Object[]{newEntry, node});
+    }
+
+    private static void forEachEntry(Object node, Consumer<Entry> consumer) {
+        if(node == null) {
+            return;
+        }
+
+        if(node instanceof Entry) {
+            consumer.accept((Entry) node);
+        } else if(node instanceof CollisionNode) {
+            for(Entry entry : ((CollisionNode) node).entries) {
+                consumer.accept(entry);
+            }
+        } else {
+            for(Object child : ((BranchNode) node).children) {
+                forEachEntry(child, consumer);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void diff(Object node, Object otherNode, int shift, DiffConsumer<K, V> consumer) {
+        if(node == otherNode) {
+            return;
+        }
+
+        if(node instanceof BranchNode && otherNode instanceof BranchNode) {
+            BranchNode branch = (BranchNode) node;
+            BranchNode otherBranch = (BranchNode) otherNode;
+
+            for(int bits = branch.bitmap | otherBranch.bitmap; bits != 0; bits &= bits - 1) {
+                int bit = Integer.lowestOneBit(bits);
+                Object child = ((branch.bitmap & bit) == 0) ? null : branch.children[branch.index(bit)];
+                Object otherChild = ((otherBranch.bitmap & bit) == 0) ? null : otherBranch.children[otherBranch.index(bit)];
+
+                diff(child, otherChild, shift + BITS_PER_LEVEL, consumer);
+            }
+            return;
+        }
+
+        Map<Object, Object> values = new HashMap<>();
+        forEachEntry(node, entry -> values.put(entry.key, entry.value));
+
+        forEachEntry(otherNode, entry -> {
+            Object value = values.remove(entry.key);
+            if(value != entry.value) {
+                consumer.accept((K) entry.key, (V) value, (V) entry.value);
+            }
+        });
+        values.forEach((key, value) -> consumer.accept((K) key, (V) value, null));
+    }
+
+    private static int hash(Object key) {
+        int hash = (key == null) ? 0 : key.hashCode();
+
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & LEVEL_MASK);
+    }
+
+    /* ************************************
+     * Trie nodes
+     * ************************************/
+
+    private static final class Entry {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Entry(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * An inner node of the trie, its children are Entry, BranchNode or CollisionNode objects.
+     * The children are stored in the order of their bits in the bitmap.
+     */
+    private static final class BranchNode {
+        final int bitmap;
+        final Object[] children;
+
+        BranchNode(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        BranchNode insert(int bit, int index, Object child) {
+            Object[] newChildren = new Object[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+
+            return new BranchNode(bitmap | bit, newChildren);
+        }
+
+        BranchNode replace(int index, Object child) {
+            Object[] newChildren = children.clone();
+            newChildren[index] = child;
+
+            return new BranchNode(bitmap, newChildren);
+        }
+
+        BranchNode delete(int bit, int index) {
+            Object[] newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+
+            return new BranchNode(bitmap & ~bit, newChildren);
+        }
+    }
+
+    /**
+     * The entries of keys with the same hash.
+     */
+    private static final class CollisionNode {
+        final int hash;
+        final Entry[] entries;
+
+        CollisionNode(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        Entry find(Object key) {
+            for(Entry entry : entries) {
+                if(Objects.equals(entry.key, key)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        Object put(Entry newEntry, int[] sizeChange) {
+            for(int i = 0; i < entries.length; i++) {
+                if(Objects.equals(entries[i].key, newEntry.key)) {
+                    if(entries[i].value == newEntry.value) {
+                        return this;
+                    }
+                    Entry[] newEntries = entries.clone();
+                    newEntries[i] = newEntry;
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+
+            sizeChange[0] = 1;
+            Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = newEntry;
+
+            return new CollisionNode(hash, newEntries);
+        }
+
+        Object remove(Object key) {
+            for(int i = 0; i < entries.length; i++) {
+                if(Objects.equals(entries[i].key, key)) {
+                    if(entries.length == 2) {
+                        return entries[1 - i];
+                    }
+                    Entry[] newEntries = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, newEntries, 0, i);
+                    System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -14,6 +14,11 @@ public class PhoneNumberValidator {
      */
     private static final String JUST_NUMBERS = "\\+?\\d{11}";
 
+    /**
+     * Added to a subscriber number to keep its leading zeros when it is converted to a string.
+     */
+    private static final int SUBSCRIBER_NUMBER_PADDING = 10_000_000;
+
     /**
      * Decides whether the provided phone number is valid.
      * A valid phone number should have 11 digits and may start with a '+'.
@@ -53,6 +58,47 @@ public class PhoneNumberValidator {
         }
     }
 
+    /**
+     * Returns the dialing code part of a formatted phone number, like "0620" or "+3620".
+     * The returned value is shared through the StringPool, as a dialing code is repeated in many phone numbers.
+     *
+     * @param formattedPhoneNumber the phone number formatted with formatPhoneNumber
+     * @return the pooled dialing code of the phone number
+     *
+     * @see StringPool
+     */
+    public static String getDialingCode(String formattedPhoneNumber) {
+        return StringPool.intern(formattedPhoneNumber.substring(0, formattedPhoneNumber.indexOf('/')));
+    }
+
+    /**
+     * Returns the subscriber part of a formatted phone number as a number, e.g. 1234567 for "0620/123-4567".
+     *
+     * @param formattedPhoneNumber the phone number formatted with formatPhoneNumber
+     * @return the seven digit subscriber number
+     */
+    public static int getSubscriberNumber(String formattedPhoneNumber) {
+        String subscriberPart = formattedPhoneNumber.substring(formattedPhoneNumber.indexOf('/') + 1);
+
+        return Integer.parseInt(subscriberPart.replace("-", ""));
+    }
+
+    /**
+     * Joins a dialing code and a subscriber number to a phone number according to the PHONE_NUMBER_FORMAT.
+     * It is the reverse of getDialingCode and getSubscriberNumber.
+     *
+     * @param dialingCode the dialing code, like "0620" or "+3620"
+     * @param subscriberNumber the seven digit subscriber number
+     * @return The formatted phone number
+     *
+     * @see PhoneNumberValidator#PHONE_NUMBER_FORMAT
+     */
+    public static String joinPhoneNumber(String dialingCode, int subscriberNumber) {
+        String digits = Integer.toString(SUBSCRIBER_NUMBER_PADDING + subscriberNumber).substring(1);
+
+        return dialingCode + '/' + digits.substring(0, 3) + '-' + digits.substring(3);
+    }
+
     /**
      * Substitutes a non-formatted phone number's digits to the required unitary format.
      *
@@ -0,0 +1,60 @@
+package person_registry.model.helper;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Helper class to share repeated string components between Person objects.
+ * The same dialing code or email domain appears in a great number of people,
+ * so only a single instance of each distinct value is kept in the memory.
+ *
+ * The values are only weakly referenced by the pool, so a value, that is no longer used by any person,
+ * e.g. the domain of deleted or replaced people, is removed from the pool by the garbage collector.
+ *
+ * The pool is safe to use from multiple threads, e.g. from the file processor thread and the GUI thread.
+ */
+public class StringPool {
+    /**
+     * The pooled values, every value is mapped to a weak reference of its own shared instance.
+     * The value can't be referenced strongly, as it would keep its own key reachable.
+     */
+    private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<>();
+
+    /**
+     * Returns the shared instance of the given value.
+     * If the value is not yet in the pool, the given instance becomes the shared one.
+     *
+     * @param value the string to be shared
+     * @return The pooled instance equal to the given value, or null if the value is null
+     */
+    public static String intern(String value) {
+        if(value == null) {
+            return null;
+        }
+
+        synchronized (POOL) {
+            WeakReference<String> reference = POOL.get(value);
+            String pooled = (reference == null) ? null : reference.get();
+
+            if(pooled == null) {
+                POOL.put(value, new WeakReference<>(value));
+                pooled = value;
+            }
+
+            return pooled;
+        }
+    }
+
+    /**
+     * Returns the number of distinct values stored in the pool.
+     * The values, that were already collected, are not counted.
+     *
+     * @return the size of the pool
+     */
+    public static int size() {
+        synchronized (POOL) {
+            return POOL.size();
+        }
+    }
+}
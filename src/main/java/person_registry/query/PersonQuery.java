@@ -0,0 +1,268 @@
+package person_registry.query;
+
+import person_registry.model.Person;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * PersonQuery class represents a filter on the people of the registry, like
+ * "everyone on dialing code 0630 with a gmail address" or "everyone with an invalid phone number".
+ * Every condition of the query has to be met by a person to match it.
+ *
+ * The registry is scanned in parallel, as its map is split between the processor cores.
+ */
+public class PersonQuery {
+    /**
+     * The default maximum number of people returned by a query.
+     */
+    public static final int DEFAULT_LIMIT = 10_000;
+
+    /**
+     * The number of digits of a subscriber number, like "123-4567".
+     */
+    private static final int SUBSCRIBER_NUMBER_DIGITS = 7;
+
+    private final List<Predicate<Person>> conditions = new ArrayList<>();
+    private int limit = DEFAULT_LIMIT;
+    private boolean countOnly;
+
+    /**
+     * Parses a query from text, that contains conditions separated by spaces. The known conditions are:
+     * "name:text", "phone:prefix", "phone:valid", "phone:invalid", "email:domain", "email:valid", "email:invalid",
+     * "limit:number" and "count", e.g. "phone:0630 email:gmail.com count".
+     *
+     * @param text the query text
+     * @return the parsed query
+     * @throws IllegalArgumentException if the text contains an unknown condition
+     */
+    public static PersonQuery parse(String text) {
+        PersonQuery query = new PersonQuery();
+
+        for(String condition : text.trim().split("\\s+")) {
+            String[] keyAndValue = condition.split(":", 2);
+            String key = keyAndValue[0].toLowerCase();
+            String value = (keyAndValue.length > 1) ? keyAndValue[1] : "";
+
+            if(key.equals("count") && value.isEmpty()) {
+                query.countOnly();
+            } else if(key.equals("limit") && value.matches("\\d+")) {
+                query.limit(Integer.parseInt(value));
+            } else if(key.equals("name") && !value.isEmpty()) {
+                query.nameContains(value);
+            } else if(key.equals("phone") && (value.equalsIgnoreCase("valid") || value.equalsIgnoreCase("invalid"))) {
+                query.phoneValid(value.equalsIgnoreCase("valid"));
+            } else if(key.equals("phone") && !value.isEmpty()) {
+                query.phonePrefix(value);
+            } else if(key.equals("email") && (value.equalsIgnoreCase("valid") || value.equalsIgnoreCase("invalid"))) {
+                query.emailValid(value.equalsIgnoreCase("valid"));
+            } else if(key.equals("email") && !value.isEmpty()) {
+                query.emailDomain(value);
+            } else {
+                throw new IllegalArgumentException("Unknown query condition: '" + condition + "'");
+            }
+        }
+
+        return query;
+    }
+
+    /**
+     * Matches the people whose name contains the given text, ignoring case.
+     *
+     * @param text the text to be found in the name
+     * @return this query
+     */
+    public PersonQuery nameContains(String text) {
+        String lowerCaseText = text.toLowerCase();
+        conditions.add(person -> person.getName().toLowerCase().contains(lowerCaseText));
+        return this;
+    }
+
+    /**
+     * Matches the people whose phone number starts with the given digits, like the dialing code "0630" or "+3630".
+     * The formatting characters of the phone number are ignored.
+     * The digits are matched against the stored dialing code and subscriber number, no phone number string is assembled.
+     *
+     * @param prefix the first digits of the phone number
+     * @return this query
+     */
+    public PersonQuery phonePrefix(String prefix) {
+        String digits = simplify(prefix);
+        conditions.add(person -> phoneStartsWithDigits(person, digits));
+        return this;
+    }
+
+    /**
+     * Matches the people whose email address has the given domain, ignoring case.
+     * A domain without a top level domain, like "gmail", matches every top level domain.
+     * The pooled domain of the person is matched, so the email address is not assembled.
+     *
+     * @param domain the domain of the email address
+     * @return this query
+     */
+    public PersonQuery emailDomain(String domain) {
+        conditions.add(person -> {
+            String emailDomain = person.getEmailDomain();
+            if(emailDomain == null || !emailDomain.regionMatches(true, 0, domain, 0, domain.length())) {
+                return false;
+            }
+
+            return emailDomain.length() == domain.length() || emailDomain.charAt(domain.length()) == '.';
+        });
+        return this;
+    }
+
+    /**
+     * Matches the people with a valid or with an invalid phone number.
+     *
+     * @param valid whether the phone number should be valid
+     * @return this query
+     */
+    public PersonQuery phoneValid(boolean valid) {
+        conditions.add(person -> isValid(person.getPhoneDialingCode()) == valid);
+        return this;
+    }
+
+    /**
+     * Matches the people with a valid or with an invalid email address.
+     *
+     * @param valid whether the email address should be valid
+     * @return this query
+     */
+    public PersonQuery emailValid(boolean valid) {
+        conditions.add(person -> (person.getEmailDomain() != null) == valid);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of people returned by find.
+     *
+     * @param limit the maximum number of people
+     * @return this query
+     */
+    public PersonQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Marks the query, that only the number of matching people is needed.
+     *
+     * @return this query
+     */
+    public PersonQuery countOnly() {
+        this.countOnly = true;
+        return this;
+    }
+
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Decides whether the person matches every condition of the query.
+     *
+     * @param person the person in question
+     * @return whether the person matches the query
+     */
+    public boolean test(Person person) {
+        for(Predicate<Person> condition : conditions) {
+            if(!condition.test(person)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the matching people with a parallel scan.
+     *
+     * @param people the people of the registry
+     * @return the number of matching people
+     */
+    public long count(Collection<Person> people) {
+        return scan(people).count();
+    }
+
+    /**
+     * Finds the matching people with a parallel scan, at most as many as the limit of the query.
+     * The order of the people is not defined.
+     *
+     * @param people the people of the registry
+     * @return the matching people
+     */
+    public List<Person> find(Collection<Person> people) {
+        return scan(people).limit(limit).collect(Collectors.toList());
+    }
+
+    /**
+     * Passes the matching people to the consumer as they are found, at most as many as the limit of the query.
+     * The consumer is called from multiple threads.
+     *
+     * @param people the people of the registry
+     * @param consumer receives the matching people, it has to be thread-safe
+     */
+    public void forEach(Collection<Person> people, Consumer<Person> consumer) {
+        scan(people).limit(limit).forEach(consumer);
+    }
+
+    private Stream<Person> scan(Collection<Person> people) {
+        return people.parallelStream().unordered().filter(this::test);
+    }
+
+    private static String simplify(String phoneNumber) {
+        return phoneNumber.replaceAll("[/\\-() ]", "");
+    }
+
+    /**
+     * Decides whether a person's phone number starts with the given digits.
+     * The digits are compared with the dialing code first, then the rest of them with the leading digits
+     * of the seven digit subscriber number, that are computed arithmetically.
+     */
+    private static boolean phoneStartsWithDigits(Person person, String digits) {
+        String dialingCode = person.getPhoneDialingCode();
+        if(!isValid(dialingCode)) {
+            return false;
+        }
+
+        if(!dialingCode.regionMatches(0, digits, 0, Math.min(dialingCode.length(), digits.length()))) {
+            return false;
+        }
+
+        int subscriberDigits = digits.length() - dialingCode.length();
+        if(subscriberDigits <= 0) {
+            return true;
+        }
+        if(subscriberDigits > SUBSCRIBER_NUMBER_DIGITS) {
+            return false;
+        }
+
+        int subscriberPrefix = person.getPhoneSubscriberNumber();
+        for(int i = subscriberDigits; i < SUBSCRIBER_NUMBER_DIGITS; i++) {
+            subscriberPrefix /= 10;
+        }
+
+        for(int i = digits.length() - 1; i >= dialingCode.length(); i--) {
+            int digit = digits.charAt(i) - '0';
+            if(digit < 0 || digit > 9 || digit != subscriberPrefix % 10) {
+                return false;
+            }
+            subscriberPrefix /= 10;
+        }
+
+        return true;
+    }
+
+    private static boolean isValid(String value) {
+        return value != null && !value.equalsIgnoreCase("invalid");
+    }
+}
@@ -0,0 +1,221 @@
+package person_registry.replication;
+
+import person_registry.model.Person;
+import person_registry.model.PersonRegistry;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The replica side of the registry replication.
+ * It connects to the primary, replaces its registry with the received snapshot,
+ * then applies the streamed modifications to it.
+ * If the connection is lost, it reconnects and catches up from a new snapshot,
+ * that only modifies the people changed on the primary in the meantime.
+ *
+ * The replication lag is reported both in events and in milliseconds.
+ */
+public class ReplicationClient implements Closeable {
+    /**
+     * Time to wait before reconnecting to the primary.
+     */
+    private static final long RECONNECT_DELAY_MILLIS = 2000;
+
+    private final PersonRegistry registry;
+    private final String host;
+    private final int port;
+
+    private volatile Socket socket;
+    private volatile boolean closed;
+    private volatile boolean isSnapshotLoaded;
+    private volatile long lastAppliedSequence = -1;
+    private volatile long primaryNextSequence;
+    private volatile long lagMillis;
+
+    /**
+     * Class constructor that creates a replica of the primary at the given address.
+     *
+     * @param registry the registry to be kept identical with the primary's registry
+     * @param host the host of the primary
+     * @param port the replication port of the primary
+     */
+    public ReplicationClient(PersonRegistry registry, String host, int port) {
+        this.registry = registry;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Decides whether the replica is connected and has loaded the snapshot of the primary.
+     * @return whether the replica is up to date with the stream of the primary
+     */
+    public boolean isReplicating() {
+        return socket != null && isSnapshotLoaded;
+    }
+
+    /**
+     * Returns the number of events done on the primary, that are not yet applied to the replica.
+     * @return the replication lag in events
+     */
+    public long getSequenceLag() {
+        return Math.max(0, primaryNextSequence - 1 - lastAppliedSequence);
+    }
+
+    /**
+     * Returns the time between the primary sending the last received frame and the replica applying it.
+     * @return the replication lag in milliseconds
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    /**
+     * Starts the replication on a new daemon thread.
+     */
+    public void start() {
+        Thread thread = new Thread(this::replicate, "replication-client");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the replication, the registry keeps its current state.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+
+        Socket currentSocket = socket;
+        if(currentSocket != null) {
+            currentSocket.close();
+        }
+    }
+
+    private void replicate() {
+        while (!closed) {
+            try (Socket connection = new Socket(host, port);
+                 DataInputStream input = new DataInputStream(new BufferedInputStream(connection.getInputStream()))) {
+                socket = connection;
+                readFrames(input);
+            } catch (IOException e) {
+                if(!closed) {
+                    System.out.println("Replication from " + host + ":" + port + " interrupted: " + e.getMessage());
+                }
+            } finally {
+                socket = null;
+                isSnapshotLoaded = false;
+            }
+
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void readFrames(DataInputStream input) throws IOException {
+        Set<String> snapshotNames = new HashSet<>();
+
+        while (!closed) {
+            byte frameType = input.readByte();
+            long sentMillis = input.readLong();
+
+            switch (frameType) {
+                case ReplicationProtocol.SNAPSHOT_BEGIN:
+                    isSnapshotLoaded = false;
+                    snapshotNames.clear();
+                    lastAppliedSequence = input.readLong() - 1;
+                    break;
+                case ReplicationProtocol.SNAPSHOT_PEOPLE:
+                    readSnapshotPeople(input, snapshotNames);
+                    break;
+                case ReplicationProtocol.SNAPSHOT_END:
+                    removePeopleNotInSnapshot(snapshotNames);
+                    snapshotNames.clear();
+                    isSnapshotLoaded = true;
+                    break;
+                case ReplicationProtocol.EVENTS:
+                    applyEvents(input);
+                    break;
+                case ReplicationProtocol.HEARTBEAT:
+                    primaryNextSequence = input.readLong();
+                    break;
+                default:
+                    throw new IOException("Unknown frame type in replication stream: " + frameType);
+            }
+
+            lagMillis = Math.max(0, System.currentTimeMillis() - sentMillis);
+        }
+    }
+
+    /**
+     * Stores the people of a snapshot chunk in the registry.
+     * A person the replica already has with the same data is skipped, so catching up after a reconnection
+     * only modifies the people, that were changed on the primary in the meantime.
+     */
+    private void readSnapshotPeople(DataInputStream input, Set<String> snapshotNames) throws IOException {
+        int count = input.readInt();
+
+        for(int i = 0; i < count; i++) {
+            Person person = ReplicationProtocol.readPerson(input);
+            snapshotNames.add(person.getName());
+
+            if(!hasSameData(registry.get(person.getName()), person)) {
+                registry.put(person.getName(), person);
+            }
+        }
+    }
+
+    private static boolean hasSameData(Person current, Person person) {
+        return current != null
+                && current.getPhoneDialingCode().equals(person.getPhoneDialingCode())
+                && current.getPhoneSubscriberNumber() == person.getPhoneSubscriberNumber()
+                && current.getEmail().equals(person.getEmail());
+    }
+
+    private void removePeopleNotInSnapshot(Set<String> snapshotNames) {
+        List<String> removedNames = new ArrayList<>();
+        for(Person person : registry.values()) {
+            if(!snapshotNames.contains(person.getName())) {
+                removedNames.add(person.getName());
+            }
+        }
+
+        for(String name : removedNames) {
+            registry.remove(name);
+        }
+    }
+
+    /**
+     * Applies a batch of events to the registry.
+     * Events already included in the snapshot may arrive again, applying them again leads to the same state.
+     */
+    private void applyEvents(DataInputStream input) throws IOException {
+        int count = input.readInt();
+
+        for(int i = 0; i < count; i++) {
+            long sequence = input.readLong();
+            byte kind = input.readByte();
+
+            if(kind == ReplicationProtocol.PERSON_DELETED) {
+                registry.remove(input.readUTF());
+            } else if(kind == ReplicationProtocol.PERSON_PUT) {
+                Person person = ReplicationProtocol.readPerson(input);
+                registry.put(person.getName(), person);
+            } else {
+                throw new IOException("Unknown event kind in replication stream: " + kind);
+            }
+
+            lastAppliedSequence = Math.max(lastAppliedSequence, sequence);
+            primaryNextSequence = Math.max(primaryNextSequence, sequence + 1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package person_registry.replication;
+
+import person_registry.model.Person;
+import person_registry.model.event.RegistryChangeEvent;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Helper class that defines the frames sent from the primary to the replicas.
+ *
+ * Every frame starts with its type and the time it was sent by the primary.
+ * A replica first receives a snapshot of the registry: a SNAPSHOT_BEGIN frame, SNAPSHOT_PEOPLE frames and a SNAPSHOT_END frame.
+ * Then it receives the modifications of the registry in EVENTS frames, in the order of their sequence numbers.
+ * If there is no modification, a HEARTBEAT frame tells the primary's sequence number.
+ */
+class ReplicationProtocol {
+    static final byte SNAPSHOT_BEGIN = 1;
+    static final byte SNAPSHOT_PEOPLE = 2;
+    static final byte SNAPSHOT_END = 3;
+    static final byte EVENTS = 4;
+    static final byte HEARTBEAT = 5;
+
+    /**
+     * Maximum number of people in a SNAPSHOT_PEOPLE frame.
+     */
+    static final int SNAPSHOT_CHUNK_SIZE = 10_000;
+
+    /**
+     * The kinds of events in an EVENTS frame: a person is added or updated, or a person is deleted.
+     */
+    static final byte PERSON_PUT = 1;
+    static final byte PERSON_DELETED = 2;
+
+    /**
+     * Writes a snapshot of the given people.
+     *
+     * @param output the stream of the replica
+     * @param people the people of the registry
+     * @param nextSequence the sequence number of the first event, that is not included in the snapshot for sure
+     * @throws IOException if the frames can't be written
+     */
+    static void writeSnapshot(DataOutputStream output, Collection<Person> people, long nextSequence) throws IOException {
+        writeHeader(output, SNAPSHOT_BEGIN);
+        output.writeLong(nextSequence);
+
+        Person[] chunk = new Person[SNAPSHOT_CHUNK_SIZE];
+        int chunkSize = 0;
+        for(Person person : people) {
+            chunk[chunkSize++] = person;
+            if(chunkSize == SNAPSHOT_CHUNK_SIZE) {
+                writeSnapshotPeople(output, chunk, chunkSize);
+                chunkSize = 0;
+            }
+        }
+        writeSnapshotPeople(output, chunk, chunkSize);
+
+        writeHeader(output, SNAPSHOT_END);
+    }
+
+    /**
+     * Writes a batch of registry modifications.
+     *
+     * @param output the stream of the replica
+     * @param events the modifications in the order of their sequence numbers
+     * @throws IOException if the frame can't be written
+     */
+    static void writeEvents(DataOutputStream output, List<RegistryChangeEvent> events) throws IOException {
+        writeHeader(output, EVENTS);
+        output.writeInt(events.size());
+
+        for(RegistryChangeEvent event : events) {
+            output.writeLong(event.getSequence());
+            if(event.getType() == RegistryChangeEvent.Type.DELETED) {
+                output.writeByte(PERSON_DELETED);
+                output.writeUTF(event.getName());
+            } else {
+                output.writeByte(PERSON_PUT);
+                writePerson(output, event.getNewPerson());
+            }
+        }
+    }
+
+    /**
+     * Writes a heartbeat, that tells the replica the primary's position.
+     *
+     * @param output the stream of the replica
+     * @param nextSequence the sequence number of the next event on the primary
+     * @throws IOException if the frame can't be written
+     */
+    static void writeHeartbeat(DataOutputStream output, long nextSequence) throws IOException {
+        writeHeader(output, HEARTBEAT);
+        output.writeLong(nextSequence);
+    }
+
+    static void writePerson(DataOutputStream output, Person person) throws IOException {
+        output.writeUTF(person.getName());
+        output.writeUTF(person.getPhoneNumber());
+        output.writeUTF(person.getEmail());
+    }
+
+    static Person readPerson(DataInputStream input) throws IOException {
+        return Person.restore(input.readUTF(), input.readUTF(), input.readUTF());
+    }
+
+    private static void writeSnapshotPeople(DataOutputStream output, Person[] people, int count) throws IOException {
+        if(count == 0) {
+            return;
+        }
+
+        writeHeader(output, SNAPSHOT_PEOPLE);
+        output.writeInt(count);
+        for(int i = 0; i < count; i++) {
+            writePerson(output, people[i]);
+        }
+    }
+
+    private static void writeHeader(DataOutputStream output, byte frameType) throws IOException {
+        output.writeByte(frameType);
+        output.writeLong(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,169 @@
+package person_registry.replication;
+
+import person_registry.model.PersonRegistry;
+import person_registry.model.event.RegistryChangeEvent;
+import person_registry.model.event.RegistryChangeListener;
+import person_registry.model.event.RegistryEventBus;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The primary side of the registry replication.
+ * It accepts replicas on a TCP port, sends them a snapshot of the registry,
+ * then streams every modification of the registry to them in batches.
+ *
+ * A replica that falls too far behind is disconnected, it catches up with a new snapshot when it reconnects.
+ */
+public class ReplicationServer implements Closeable {
+    /**
+     * Maximum number of events sent in one frame.
+     */
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    /**
+     * Maximum number of batches waiting to be sent to a replica, before it is considered too slow.
+     */
+    private static final int MAX_QUEUED_BATCHES = 1024;
+
+    /**
+     * Time between two heartbeats, if the registry is not modified.
+     */
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 1000;
+
+    private final PersonRegistry registry;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> replicas = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Class constructor that opens the port for the replicas.
+     *
+     * @param registry the registry to be replicated
+     * @param port the TCP port to listen on, 0 means any free port
+     * @throws IOException if the port can't be opened
+     */
+    public ReplicationServer(PersonRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of connected replicas.
+     * @return the number of replicas
+     */
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    /**
+     * Starts accepting replicas on a new daemon thread.
+     */
+    public void start() {
+        startDaemon(this::acceptReplicas, "replication-server");
+    }
+
+    /**
+     * Stops accepting replicas and disconnects the connected ones.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+
+        for(Socket replica : replicas) {
+            replica.close();
+        }
+    }
+
+    private void acceptReplicas() {
+        while (!closed) {
+            try {
+                Socket replica = serverSocket.accept();
+                replicas.add(replica);
+                startDaemon(() -> serveReplica(replica), "replication-" + replica.getRemoteSocketAddress());
+            } catch (IOException e) {
+                if(!closed) {
+                    System.out.println("Replication server could not accept a replica: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the snapshot, then the modifications of the registry to a replica until it disconnects.
+     * The snapshot and the subscription to the registry's events are taken together,
+     * so no modification is missed, and the ones that got into the snapshot too are simply applied again.
+     *
+     * @see PersonRegistry#subscribeWithSnapshot(String, int, RegistryChangeListener)
+     */
+    private void serveReplica(Socket replica) {
+        BlockingQueue<List<RegistryChangeEvent>> batches = new ArrayBlockingQueue<>(MAX_QUEUED_BATCHES);
+        AtomicBoolean isBehind = new AtomicBoolean();
+        RegistryEventBus eventBus = registry.getEventBus();
+
+        try (Socket socket = replica;
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+             PersonRegistry.SnapshotSubscription snapshot = registry.subscribeWithSnapshot("replication-events", MAX_BATCH_SIZE,
+                     new RegistryChangeListener() {
+                         @Override
+                         public void onChanges(List<RegistryChangeEvent> events) {
+                             if(!batches.offer(events)) {
+                                 isBehind.set(true);
+                             }
+                         }
+
+                         @Override
+                         public void onChangesLost(long lostEvents) {
+                             isBehind.set(true);
+                         }
+                     })) {
+            ReplicationProtocol.writeSnapshot(output, snapshot.getPeople(), snapshot.getNextSequence());
+            output.flush();
+
+            while (!closed && !isBehind.get()) {
+                List<RegistryChangeEvent> batch = batches.poll(HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if(batch == null) {
+                    ReplicationProtocol.writeHeartbeat(output, eventBus.getNextSequence());
+                } else {
+                    ReplicationProtocol.writeEvents(output, batch);
+                }
+                output.flush();
+            }
+
+            if(isBehind.get()) {
+                System.out.println("Replica " + replica.getRemoteSocketAddress() + " fell behind, it is disconnected to catch up from a snapshot");
+            }
+        } catch (IOException e) {
+            if(!closed) {
+                System.out.println("Replica " + replica.getRemoteSocketAddress() + " disconnected: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replicas.remove(replica);
+        }
+    }
+
+    private static void startDaemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,122 @@
+package person_registry;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PersonTableRowsTest {
+    private ObservableList<Person> items;
+    private PersonTableRows rows;
+
+    @Before
+    public void initialize() {
+        items = FXCollections.observableArrayList();
+        rows = new PersonTableRows(items);
+
+        List<Person> people = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            people.add(Person.restore("Name" + i, "0630/123-4567", "person@email.com"));
+        }
+        rows.update(people, Collections.emptySet());
+    }
+
+    @Test
+    public void modifiedPersonReplacedInPlace() {
+        Person modified = Person.restore("Name42", "0620/765-4321", "person@email.com");
+
+        rows.update(Collections.singletonList(modified), Collections.emptySet());
+
+        TestCase.assertEquals(100, items.size());
+        TestCase.assertSame(modified, items.get(42));
+    }
+
+    @Test
+    public void rowsFoundAfterRemovals() {
+        rows.remove(Arrays.asList("Name10", "Name20", "Name30"));
+
+        TestCase.assertEquals(97, items.size());
+        TestCase.assertEquals(-1, rows.findRow("Name20"));
+        TestCase.assertEquals(96, rows.findRow("Name99"));
+        TestCase.assertEquals("Name50", items.get(rows.findRow("Name50")).getName());
+    }
+
+    @Test
+    public void manyRemovalsCopyRemainingRows() {
+        List<String> names = new ArrayList<>();
+        for(int i = 0; i < 100; i += 2) {
+            names.add("Name" + i);
+        }
+
+        rows.remove(names);
+
+        TestCase.assertEquals(50, items.size());
+        TestCase.assertEquals("Name1", items.get(0).getName());
+        TestCase.assertEquals(49, rows.findRow("Name99"));
+    }
+
+    @Test
+    public void indexRebuiltAfterReordering() {
+        Collections.reverse(items);
+
+        TestCase.assertEquals(99, rows.findRow("Name0"));
+        TestCase.assertEquals(0, rows.findRow("Name99"));
+    }
+
+    @Test
+    public void sortedCopyReplacesRows() {
+        PersonTableRows.SortedRows sortedRows = PersonTableRows.sort(rows.copyRows(), PersonTableRows.NAME_ORDER.reversed());
+
+        TestCase.assertTrue(rows.setSorted(sortedRows, rows.getModificationCount()));
+        TestCase.assertEquals("Name99", items.get(0).getName());
+        TestCase.assertEquals(0, rows.findRow("Name99"));
+        TestCase.assertEquals(99, rows.findRow("Name0"));
+    }
+
+    @Test
+    public void columnOrdersMatchStringOrder() {
+        List<Person> people = Arrays.asList(
+                Person.restore("A", "0630/123-4567", "ab.c@email.com"),
+                Person.restore("B", "+3620/123-4567", "ab@email.com"),
+                Person.restore("C", "0620/765-4321", "ab@a.com"),
+                Person.restore("D", "INVALID", "INVALID"),
+                Person.restore("E", "0620/123-4567", "a@email.com"));
+
+        List<Person> byPhone = PersonTableRows.sort(new ArrayList<>(people), PersonTableRows.PHONE_ORDER).getPeople();
+        List<Person> byEmail = PersonTableRows.sort(new ArrayList<>(people), PersonTableRows.EMAIL_ORDER).getPeople();
+
+        for(int i = 1; i < people.size(); i++) {
+            TestCase.assertTrue(byPhone.get(i - 1).getPhoneNumber().compareTo(byPhone.get(i).getPhoneNumber()) <= 0);
+            TestCase.assertTrue(byEmail.get(i - 1).getEmail().compareTo(byEmail.get(i).getEmail()) < 0);
+        }
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void missingPersonNotFound() {
+        rows.remove(Collections.singleton("Missing"));
+
+        TestCase.assertEquals(100, items.size());
+        TestCase.assertEquals(-1, rows.findRow("Missing"));
+    }
+
+    @Test
+    public void sortedCopyNotShownAfterModification() {
+        int modificationCount = rows.getModificationCount();
+        PersonTableRows.SortedRows sortedRows = PersonTableRows.sort(rows.copyRows(), PersonTableRows.NAME_ORDER.reversed());
+        rows.remove(Collections.singleton("Name50"));
+
+        TestCase.assertFalse(rows.setSorted(sortedRows, modificationCount));
+        TestCase.assertEquals("Name0", items.get(0).getName());
+        TestCase.assertEquals(99, items.size());
+    }
+}
@@ -0,0 +1,44 @@
+package person_registry.dedup;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class NameKeysTest {
+    @Test
+    public void nameNormalised(){
+        TestCase.assertEquals("john smith", NameKeys.normalise("  John   Smith "));
+        TestCase.assertEquals("arpad kovacs", NameKeys.normalise("\u00c1rp\u00e1d Kov\u00e1cs-"));
+    }
+
+    @Test
+    public void similarNamesHaveSamePhoneticKey(){
+        String expected = NameKeys.phoneticKey("John Smith");
+
+        TestCase.assertEquals(expected, NameKeys.phoneticKey("john  smith"));
+        TestCase.assertEquals(expected, NameKeys.phoneticKey("Jon Smith"));
+        TestCase.assertEquals(expected, NameKeys.phoneticKey("Smith John"));
+    }
+
+    @Test
+    public void soundexCodedProperly(){
+        TestCase.assertEquals("r163", NameKeys.soundex("robert"));
+        TestCase.assertEquals("r163", NameKeys.soundex("rupert"));
+        TestCase.assertEquals("a261", NameKeys.soundex("ashcraft"));
+        TestCase.assertEquals("t522", NameKeys.soundex("tymczak"));
+    }
+
+    @Test
+    public void similarityOfStrings(){
+        TestCase.assertEquals(1.0, NameKeys.similarity("martha", "martha"), 0.0001);
+        TestCase.assertEquals(0.9611, NameKeys.similarity("martha", "marhta"), 0.0001);
+        TestCase.assertEquals(0.0, NameKeys.similarity("abc", "xyz"), 0.0001);
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void differentNamesHaveDifferentPhoneticKey(){
+        TestCase.assertFalse(NameKeys.phoneticKey("John Smith").equals(NameKeys.phoneticKey("Mary Smith")));
+    }
+}
@@ -0,0 +1,79 @@
+package person_registry.dedup;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class NearDuplicateDetectorTest {
+    @Test
+    public void spellingVariantsSuggested(){
+        List<Person> people = Arrays.asList(
+                new Person("john smith", "06301234567", "john@email.com"),
+                new Person("Jon Smith", "06301234567", "jsmith@email.com"),
+                new Person("Mary Jones", "06207654321", "mary@email.com"));
+
+        List<MergeSuggestion> suggestions = new NearDuplicateDetector().findDuplicates(people);
+
+        TestCase.assertEquals(1, suggestions.size());
+        TestCase.assertEquals("John smith", suggestions.get(0).getFirst().getName());
+        TestCase.assertEquals("Jon Smith", suggestions.get(0).getSecond().getName());
+    }
+
+    @Test
+    public void suggestionsRankedByScore(){
+        List<Person> people = Arrays.asList(
+                new Person("John Smith", "06301234567", "john@email.com"),
+                new Person("John  Smith", "06301234567", "john@other.com"),
+                new Person("Jon Smith", "06209999999", "invalid"));
+
+        List<MergeSuggestion> suggestions = new NearDuplicateDetector().findDuplicates(people);
+
+        TestCase.assertEquals(3, suggestions.size());
+        TestCase.assertEquals(1.0, suggestions.get(0).getScore(), 0.0001);
+        TestCase.assertTrue(suggestions.get(1).getScore() >= suggestions.get(2).getScore());
+    }
+
+    @Test
+    public void duplicatesInLargeBlockSuggested(){
+        List<Person> people = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            people.add(new Person(letters(i) + " " + letters(i * 7 + 3), "invalid", "info@company" + i + ".com"));
+        }
+        people.add(new Person("John Smith", "invalid", "info@smith.com"));
+        people.add(new Person("John Smith Jr", "invalid", "info@other.com"));
+
+        NearDuplicateDetector detector = new NearDuplicateDetector(0.7);
+        List<MergeSuggestion> suggestions = detector.findDuplicates(people);
+
+        TestCase.assertEquals(1, detector.getWindowedBlocks());
+        TestCase.assertTrue(suggestions.stream().anyMatch(suggestion -> suggestion.getFirst().getName().equals("John Smith")
+                && suggestion.getSecond().getName().equals("John Smith Jr")));
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void differentPeopleNotSuggested(){
+        List<Person> people = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            people.add(new Person("Person" + (char) ('a' + i % 26) + i, String.format("0630%07d", i), "person" + i + "@email.com"));
+        }
+
+        TestCase.assertTrue(new NearDuplicateDetector(0.9).findDuplicates(people).isEmpty());
+    }
+
+    private static String letters(int number) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+
+        return letters.toString();
+    }
+}
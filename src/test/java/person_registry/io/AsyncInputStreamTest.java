@@ -0,0 +1,53 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class AsyncInputStreamTest {
+    @Test
+    public void sourceReadAhead() throws IOException {
+        byte[] data = new byte[200_000];
+        for(int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        byte[] read = new byte[data.length];
+        try (AsyncInputStream input = new AsyncInputStream(new ByteArrayInputStream(data), "test-reader")) {
+            int offset = 0;
+            int length;
+            while ((length = input.read(read, offset, read.length - offset)) > 0) {
+                offset += length;
+            }
+
+            TestCase.assertEquals(data.length, offset);
+            TestCase.assertEquals(-1, input.read());
+        }
+
+        TestCase.assertTrue(Arrays.equals(data, read));
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void runtimeExceptionOfSourceHandedToReader() throws IOException {
+        InputStream failingSource = new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("broken source");
+            }
+        };
+
+        try (AsyncInputStream input = new AsyncInputStream(failingSource, "test-reader")) {
+            input.read();
+            TestCase.fail("The exception of the source should be thrown");
+        } catch (IOException e) {
+            TestCase.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
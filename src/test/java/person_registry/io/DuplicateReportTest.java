@@ -0,0 +1,110 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import person_registry.model.Person;
+import person_registry.model.PersonRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DuplicateReportTest {
+    private Path reportPath;
+
+    private Person first = new Person("Name", "06301234567", "first@email.com");
+    private Person second = new Person("Name", "06207654321", "second@email.com");
+
+    @Before
+    public void initialize() throws IOException {
+        reportPath = Files.createTempFile("registry", ".duplicates");
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(reportPath);
+    }
+
+    @Test
+    public void overwrittenPersonReported() throws IOException {
+        try (DuplicateReport report = new DuplicateReport(reportPath, 100)) {
+            report.check(2, first, null);
+            report.check(5, second, first);
+
+            TestCase.assertEquals(1, report.getDuplicateCount());
+        }
+
+        List<String> lines = Files.readAllLines(reportPath);
+        TestCase.assertEquals(2, lines.size());
+        TestCase.assertEquals("5\tName\t0630/123-4567\tfirst@email.com", lines.get(1));
+    }
+
+    @Test
+    public void duplicateReportedWhenReloadedToConcurrentRegistry() throws IOException {
+        PersonRegistry registry = new PersonRegistry();
+        registry.put("Name", new Person("Name", "06301234567", "earlier@email.com"));
+
+        try (DuplicateReport report = DuplicateReport.trackingParsedPeople(reportPath, 100)) {
+            report.check(2, first, registry.put("Name", first));
+            report.check(5, second, registry.put("Name", second));
+
+            TestCase.assertEquals(1, report.getDuplicateCount());
+        }
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void falsePositiveOfPersonFromEarlierFileNotReported() throws IOException {
+        Map<String, Person> registryBeforeFile = new HashMap<>();
+        for(int i = 0; i < 1000; i++) {
+            registryBeforeFile.put("Name" + i, new Person("Name" + i, "06301234567", "earlier@email.com"));
+        }
+
+        try (DuplicateReport report = new DuplicateReport(reportPath, 1, registryBeforeFile::get)) {
+            for(int i = 0; i < 1000; i++) {
+                report.check(i + 2, new Person("Name" + i, "06207654321", "later@email.com"), registryBeforeFile.get("Name" + i));
+            }
+
+            TestCase.assertEquals(0, report.getDuplicateCount());
+        }
+
+        TestCase.assertFalse(Files.exists(reportPath));
+    }
+
+    @Test
+    public void personFromEarlierFileNotReported() throws IOException {
+        try (DuplicateReport report = new DuplicateReport(reportPath, 100)) {
+            report.check(2, second, first);
+
+            TestCase.assertEquals(0, report.getDuplicateCount());
+        }
+
+        TestCase.assertFalse(Files.exists(reportPath));
+    }
+
+    @Test
+    public void falsePositiveNotReportedWhenReloadedToConcurrentRegistry() throws IOException {
+        PersonRegistry registry = new PersonRegistry();
+        for(int i = 0; i < 1000; i++) {
+            registry.put("Name" + i, new Person("Name" + i, "06301234567", "earlier@email.com"));
+        }
+
+        try (DuplicateReport report = DuplicateReport.trackingParsedPeople(reportPath, 1)) {
+            for(int i = 0; i < 1000; i++) {
+                Person person = new Person("Name" + i, "06207654321", "later@email.com");
+                report.check(i + 2, person, registry.put(person.getName(), person));
+            }
+
+            TestCase.assertEquals(0, report.getDuplicateCount());
+        }
+
+        TestCase.assertFalse(Files.exists(reportPath));
+    }
+}
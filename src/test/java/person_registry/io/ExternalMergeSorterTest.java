@@ -0,0 +1,118 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+
+public class ExternalMergeSorterTest {
+    private Function<Person, String> lineFormatter = person -> person.getName() + ": " + person.getPhoneNumber()
+            + ", " + person.getEmail() + "\n";
+
+    private List<Person> people = Arrays.asList(
+            new Person("Cecil", "06301111111", "a@email.com"),
+            new Person("Anna", "06302222222", "c@email.com"),
+            new Person("Bela", "06301111111", "b@email.com"),
+            new Person("Dora", "123", "invalid"));
+
+    @Test
+    public void sortedByNameInMemory() throws IOException {
+        ExternalMergeSorter sorter = new ExternalMergeSorter(1024 * 1024);
+
+        List<String> lines = write(sorter, people, SortOrder.NAME);
+
+        TestCase.assertEquals(Arrays.asList("Anna", "Bela", "Cecil", "Dora"), names(lines));
+        TestCase.assertEquals(0, sorter.getSpilledRuns());
+    }
+
+    @Test
+    public void samePhoneNumberOrderedByName() throws IOException {
+        List<String> lines = write(new ExternalMergeSorter(1024 * 1024), people, SortOrder.PHONE);
+
+        TestCase.assertEquals(Arrays.asList("Bela", "Cecil", "Anna", "Dora"), names(lines));
+    }
+
+    @Test
+    public void sortedByEmail() throws IOException {
+        List<String> lines = write(new ExternalMergeSorter(1024 * 1024), people, SortOrder.EMAIL);
+
+        TestCase.assertEquals(Arrays.asList("Cecil", "Bela", "Anna", "Dora"), names(lines));
+    }
+
+    @Test
+    public void runsSpilledAndMergedOverBudget() throws IOException {
+        List<Person> manyPeople = new ArrayList<>();
+        for(int i = 0; i < 5_000; i++) {
+            manyPeople.add(Person.restore("Person" + (i * 7919 % 5_000), "0630/123-4567", "person@email.com"));
+        }
+        ExternalMergeSorter sorter = new ExternalMergeSorter(16 * 1024);
+
+        List<String> lines = write(sorter, manyPeople, SortOrder.NAME);
+
+        TestCase.assertTrue(sorter.getSpilledRuns() > 1);
+        TestCase.assertEquals(5_000, lines.size());
+        List<String> expectedNames = new ArrayList<>(names(lines));
+        Collections.sort(expectedNames);
+        TestCase.assertEquals(expectedNames, names(lines));
+    }
+
+    @Test
+    public void manyRunsMergedInSeveralPasses() throws IOException {
+        List<Person> manyPeople = new ArrayList<>();
+        for(int i = 0; i < 20_000; i++) {
+            manyPeople.add(Person.restore("Person" + (i * 7919 % 20_000), "0630/123-4567", "person@email.com"));
+        }
+        ExternalMergeSorter sorter = new ExternalMergeSorter(16 * 1024);
+
+        List<String> lines = write(sorter, manyPeople, SortOrder.NAME);
+
+        TestCase.assertTrue(sorter.getSpilledRuns() > ExternalMergeSorter.MAX_MERGE_FAN_IN);
+        TestCase.assertTrue(sorter.getMergePasses() > 1);
+        TestCase.assertEquals(20_000, lines.size());
+        List<String> expectedNames = new ArrayList<>(names(lines));
+        Collections.sort(expectedNames);
+        TestCase.assertEquals(expectedNames, names(lines));
+        TestCase.assertEquals(20_000, new HashSet<>(names(lines)).size());
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void unsortedKeepsRegistryOrder() throws IOException {
+        ExternalMergeSorter sorter = new ExternalMergeSorter(16 * 1024);
+
+        List<String> lines = write(sorter, people, SortOrder.UNSORTED);
+
+        TestCase.assertEquals(Arrays.asList("Cecil", "Anna", "Bela", "Dora"), names(lines));
+        TestCase.assertEquals(0, sorter.getSpilledRuns());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroBudgetRejected() {
+        new ExternalMergeSorter(0);
+    }
+
+    private List<String> write(ExternalMergeSorter sorter, List<Person> people, SortOrder sortOrder) throws IOException {
+        StringWriter writer = new StringWriter();
+        sorter.write(people, sortOrder, lineFormatter, writer);
+
+        return Arrays.asList(writer.toString().split("\n"));
+    }
+
+    private static List<String> names(List<String> lines) {
+        List<String> names = new ArrayList<>();
+        for(String line : lines) {
+            names.add(line.substring(0, line.indexOf(':')));
+        }
+        return names;
+    }
+}
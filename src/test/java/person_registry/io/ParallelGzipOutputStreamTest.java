@@ -0,0 +1,48 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+public class ParallelGzipOutputStreamTest {
+    @Test
+    public void multipleBlocksReadBackAsOneGzipFile() throws IOException {
+        byte[] data = new byte[100_000];
+        new Random(42).nextBytes(data);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (ParallelGzipOutputStream output = new ParallelGzipOutputStream(compressed, 4096, 4)) {
+            output.write(data, 0, 50_000);
+            output.write(data[50_000]);
+            output.write(data, 50_001, data.length - 50_001);
+        }
+
+        TestCase.assertTrue(Arrays.equals(data, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())))));
+    }
+
+    @Test
+    public void emptyStreamWritesNothing() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        new ParallelGzipOutputStream(compressed, 4096, 2).close();
+
+        TestCase.assertEquals(0, compressed.size());
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = input.read(buffer)) > 0) {
+            output.write(buffer, 0, length);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,69 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RegistryFileParserTest {
+    private List<String> loggedExceptions = new ArrayList<>();
+
+    @Test
+    public void separatorCharactersReadFromFirstLine() throws IOException {
+        RegistryFileParser parser = new RegistryFileParser("Name:Number,Email", loggedExceptions::add);
+
+        boolean isFirstLineValid = parser.readFirstLine(new BufferedReader(new StringReader("\nName;Number|Email\n")));
+
+        TestCase.assertTrue(isFirstLineValid);
+        TestCase.assertEquals(";", parser.getNameNumberSeparator());
+        TestCase.assertEquals("|", parser.getNumberEmailSeparator());
+    }
+
+    @Test
+    public void peopleReadWithOwnSeparators() throws IOException {
+        RegistryFileParser parser = new RegistryFileParser("Name:Number,Email", loggedExceptions::add);
+        BufferedReader reader = new BufferedReader(new StringReader("Name=Number#Email\n"
+                + "Name1=06301234567#person1@email.com\n\n"
+                + "Name2=06207654321#person2@email.com\n"));
+        List<Person> people = new ArrayList<>();
+
+        parser.readFirstLine(reader);
+        int parsedPeople = parser.readPeople(reader, (person, lineNumber) -> people.add(person));
+
+        TestCase.assertEquals(2, parsedPeople);
+        TestCase.assertEquals("Name2", people.get(1).getName());
+        TestCase.assertEquals("0620/765-4321", people.get(1).getPhoneNumber());
+        TestCase.assertTrue(loggedExceptions.isEmpty());
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void fileWithoutFirstLineIsNotProcessed() throws IOException {
+        RegistryFileParser parser = new RegistryFileParser("Name:Number,Email", loggedExceptions::add);
+
+        boolean isFirstLineValid = parser.readFirstLine(new BufferedReader(new StringReader("Anna: 06301234567, a@b.com\n")));
+
+        TestCase.assertFalse(isFirstLineValid);
+        TestCase.assertEquals(1, loggedExceptions.size());
+    }
+
+    @Test
+    public void malformedLineIsSkipped() throws IOException {
+        RegistryFileParser parser = new RegistryFileParser("Name:Number,Email", loggedExceptions::add);
+        List<Person> people = new ArrayList<>();
+
+        int parsedPeople = parser.readPeople(new BufferedReader(new StringReader("no separators here\n")),
+                (person, lineNumber) -> people.add(person));
+
+        TestCase.assertEquals(0, parsedPeople);
+        TestCase.assertTrue(people.isEmpty());
+        TestCase.assertFalse(loggedExceptions.isEmpty());
+    }
+}
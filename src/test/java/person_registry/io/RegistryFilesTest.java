@@ -0,0 +1,96 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RegistryFilesTest {
+    private Path plainFile;
+    private Path compressedFile;
+
+    @Before
+    public void initialize() throws IOException {
+        plainFile = Files.createTempFile("registry", ".txt");
+        compressedFile = Files.createTempFile("registry", ".txt.gz");
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(plainFile);
+        Files.deleteIfExists(compressedFile);
+    }
+
+    @Test
+    public void compressedFileWrittenAndReadBack() throws IOException {
+        List<String> lines = writeLines(compressedFile.toString(), 200_000);
+
+        TestCase.assertFalse(Files.readAllBytes(compressedFile)[0] == 'N');
+        TestCase.assertEquals(lines, readLines(compressedFile));
+    }
+
+    @Test
+    public void plainFileWrittenAndReadBack() throws IOException {
+        List<String> lines = writeLines(plainFile.toString(), 1000);
+
+        TestCase.assertEquals(lines, Files.readAllLines(plainFile));
+        TestCase.assertEquals(lines, readLines(plainFile));
+    }
+
+    @Test
+    public void compressedFileRecognisedByContent() throws IOException {
+        List<String> lines = writeLines(compressedFile.toString(), 1000);
+        Files.move(compressedFile, plainFile, StandardCopyOption.REPLACE_EXISTING);
+
+        TestCase.assertEquals(lines, readLines(plainFile));
+        TestCase.assertTrue(RegistryFiles.isCompressed(plainFile.toFile()));
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void plainFileWithCompressedExtensionNotRecognisedAsCompressed() throws IOException {
+        Files.write(compressedFile, writeLines(plainFile.toString(), 10));
+
+        TestCase.assertFalse(RegistryFiles.isCompressed(compressedFile.toFile()));
+    }
+
+    private static List<String> writeLines(String path, int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("Name:Number,Email");
+
+        try (BufferedWriter writer = RegistryFiles.openWriter(path)) {
+            writer.write(lines.get(0) + "\n");
+            for(int i = 0; i < count; i++) {
+                String line = "Name" + i + ": 0630" + (1000000 + i) + ", person" + i + "@email.com";
+                lines.add(line);
+                writer.write(line + "\n");
+            }
+        }
+
+        return lines;
+    }
+
+    private static List<String> readLines(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        try (BufferedReader reader = RegistryFiles.openReader(path.toFile())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        return lines;
+    }
+}
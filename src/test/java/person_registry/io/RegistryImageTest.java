@@ -0,0 +1,108 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RegistryImageTest {
+    private Path imagePath;
+    private Path sourcePath;
+
+    @Before
+    public void initialize() throws IOException {
+        imagePath = Files.createTempFile("registry", ".image");
+        sourcePath = Files.createTempFile("registry", ".txt");
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(imagePath);
+        Files.deleteIfExists(sourcePath);
+    }
+
+    @Test
+    public void peopleRestoredSortedByName() throws IOException {
+        List<Person> people = Arrays.asList(
+                new Person("Zoe", "+36301234567", "zoe@email.com"),
+                new Person("Adam", "0620123", "invalid email"));
+
+        new RegistryImage(null, 0, "Name;Number#Email", people).write(imagePath);
+        RegistryImage image = RegistryImage.read(imagePath);
+
+        TestCase.assertEquals("Name;Number#Email", image.getFirstLine());
+        TestCase.assertEquals(2, image.getPeople().size());
+
+        Person adam = image.getPeople().get(0);
+        TestCase.assertEquals("Adam", adam.getName());
+        TestCase.assertEquals("INVALID", adam.getPhoneNumber());
+        TestCase.assertEquals("INVALID", adam.getEmail());
+
+        Person zoe = image.getPeople().get(1);
+        TestCase.assertEquals("+3630/123-4567", zoe.getPhoneNumber());
+        TestCase.assertEquals("zoe@email.com", zoe.getEmail());
+    }
+
+    @Test
+    public void personFoundByNameWithoutDecodingImage() throws IOException {
+        List<Person> people = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            people.add(new Person("Name" + i, "06301234567", "name" + i + "@email.com"));
+        }
+        people.add(new Person("\u00c1rp\u00e1d \u0150z", "06301234567", "arpad@email.com"));
+
+        new RegistryImage(null, 0, "Name:Number,Email", people).write(imagePath);
+        RegistryImage image = RegistryImage.read(imagePath);
+
+        TestCase.assertEquals("name500@email.com", image.find("Name500").getEmail());
+        TestCase.assertEquals("arpad@email.com", image.find("\u00c1rp\u00e1d \u0150z").getEmail());
+        TestCase.assertEquals("Name0", image.find("Name0").getName());
+        TestCase.assertNull(image.find("Name1000"));
+        TestCase.assertNull(image.find("A"));
+    }
+
+    @Test
+    public void imageOfUnmodifiedSourceIsNotStale() throws IOException {
+        long lastModified = sourcePath.toFile().lastModified();
+
+        new RegistryImage(sourcePath.toString(), lastModified, "Name:Number,Email", Collections.emptyList()).write(imagePath);
+
+        TestCase.assertFalse(RegistryImage.read(imagePath).isStale());
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void imageOfModifiedSourceIsStale() throws IOException {
+        long lastModified = sourcePath.toFile().lastModified();
+
+        new RegistryImage(sourcePath.toString(), lastModified - 1000, "Name:Number,Email", Collections.emptyList()).write(imagePath);
+
+        TestCase.assertTrue(RegistryImage.read(imagePath).isStale());
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFileIsNotReadAsImage() throws IOException {
+        Files.write(imagePath, Arrays.asList("Name:Number,Email", "Name1:06301234567,a@b.com"));
+
+        RegistryImage.read(imagePath);
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void missingImageIsReported() throws IOException {
+        Files.delete(imagePath);
+
+        RegistryImage.read(imagePath);
+    }
+}
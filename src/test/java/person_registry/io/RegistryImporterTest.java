@@ -0,0 +1,111 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class RegistryImporterTest {
+    private Path directory;
+    private Path olderFile;
+    private Path newerFile;
+    private List<String> loggedExceptions = new ArrayList<>();
+
+    @Before
+    public void initialize() throws IOException {
+        directory = Files.createTempDirectory("registry-import");
+
+        olderFile = directory.resolve("a-region.txt");
+        Files.write(olderFile, Arrays.asList("Name:Number,Email", "Name1:06301234567,old@email.com", "Name2:06301111111,invalid"));
+        Files.setLastModifiedTime(olderFile, FileTime.fromMillis(1_000_000L));
+
+        newerFile = directory.resolve("b-region.txt");
+        Files.write(newerFile, Arrays.asList("Name;Number#Email", "Name1;0620123456#new@email.com", "Name3;06302222222#c@email.com"));
+        Files.setLastModifiedTime(newerFile, FileTime.fromMillis(2_000_000L));
+
+        Files.write(directory.resolve("notes.md"), Arrays.asList("not a registry"));
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for(Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void directoryListedInNameOrder() throws IOException {
+        List<Path> files = RegistryImporter.findRegistryFiles(directory.toString());
+
+        TestCase.assertEquals(Arrays.asList(olderFile, newerFile, directory.resolve("notes.md")), files);
+    }
+
+    @Test
+    public void globPatternFiltersFiles() throws IOException {
+        List<Path> files = RegistryImporter.findRegistryFiles(directory + "/*-region.txt");
+
+        TestCase.assertEquals(Arrays.asList(olderFile, newerFile), files);
+    }
+
+    @Test
+    public void lastModifiedFileWins() throws IOException {
+        Map<String, Person> people = importFiles(ConflictPolicy.LAST_MODIFIED_WINS);
+
+        TestCase.assertEquals(3, people.size());
+        TestCase.assertEquals("INVALID", people.get("Name1").getPhoneNumber());
+        TestCase.assertEquals("new@email.com", people.get("Name1").getEmail());
+    }
+
+    @Test
+    public void sourcePriorityWins() throws IOException {
+        Map<String, Person> people = importFiles(ConflictPolicy.SOURCE_PRIORITY);
+
+        TestCase.assertEquals("0630/123-4567", people.get("Name1").getPhoneNumber());
+        TestCase.assertEquals("old@email.com", people.get("Name1").getEmail());
+    }
+
+    @Test
+    public void validFieldsMerged() throws IOException {
+        Map<String, Person> people = importFiles(ConflictPolicy.FIELD_MERGE);
+
+        TestCase.assertEquals("0630/123-4567", people.get("Name1").getPhoneNumber());
+        TestCase.assertEquals("new@email.com", people.get("Name1").getEmail());
+    }
+
+    @Test
+    public void rejectedLinesCountedAndReported() throws IOException {
+        RegistryImporter importer = new RegistryImporter(ConflictPolicy.LAST_MODIFIED_WINS, "Name:Number,Email",
+                loggedExceptions::add);
+
+        importer.importFiles(Arrays.asList(olderFile, newerFile));
+
+        TestCase.assertEquals(Integer.valueOf(1), importer.getRejectCounts().get(RejectReason.INVALID_EMAIL));
+        TestCase.assertEquals(Integer.valueOf(1), importer.getRejectCounts().get(RejectReason.INVALID_PHONE));
+        TestCase.assertTrue(Files.exists(directory.resolve("a-region.txt.rejects")));
+        TestCase.assertTrue(loggedExceptions.isEmpty());
+
+        List<Path> files = RegistryImporter.findRegistryFiles(directory.toString());
+        TestCase.assertEquals(Arrays.asList(olderFile, newerFile, directory.resolve("notes.md")), files);
+    }
+
+    private Map<String, Person> importFiles(ConflictPolicy conflictPolicy) throws IOException {
+        RegistryImporter importer = new RegistryImporter(conflictPolicy, "Name:Number,Email", loggedExceptions::add);
+
+        return importer.importFiles(Arrays.asList(olderFile, newerFile));
+    }
+}
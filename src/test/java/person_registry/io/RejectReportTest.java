@@ -0,0 +1,118 @@
+package person_registry.io;
+
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RejectReportTest {
+    private Path reportPath;
+    private List<String> loggedExceptions = new ArrayList<>();
+
+    @Before
+    public void initialize() throws IOException {
+        reportPath = Files.createTempFile("registry", ".rejects");
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(reportPath);
+    }
+
+    @Test
+    public void rejectedLinesWrittenWithReason() throws IOException {
+        try (RejectReport report = new RejectReport(reportPath)) {
+            report.reject(3, RejectReason.MALFORMED_LINE, "no separators here");
+            report.reject(5, RejectReason.INVALID_EMAIL, "Anna: 06301234567, invalid");
+
+            TestCase.assertEquals(1, report.getRejectCount(RejectReason.MALFORMED_LINE));
+            TestCase.assertEquals(0, report.getRejectCount(RejectReason.INVALID_PHONE));
+            TestCase.assertFalse(report.getRejectCounts().containsKey(RejectReason.INVALID_PHONE));
+        }
+
+        List<String> lines = Files.readAllLines(reportPath);
+        TestCase.assertEquals(3, lines.size());
+        TestCase.assertEquals("Line\tReason\tText", lines.get(0));
+        TestCase.assertEquals("3\tMALFORMED_LINE\tno separators here", lines.get(1));
+        TestCase.assertEquals("5\tINVALID_EMAIL\tAnna: 06301234567, invalid", lines.get(2));
+    }
+
+    @Test
+    public void manyRejectedLinesWrittenInOrder() throws IOException {
+        try (RejectReport report = new RejectReport(reportPath)) {
+            for(int i = 1; i <= 100_000; i++) {
+                report.reject(i, RejectReason.INVALID_PHONE, "Name" + i + ": 123, name@email.com");
+            }
+        }
+
+        List<String> lines = Files.readAllLines(reportPath);
+        TestCase.assertEquals(100_001, lines.size());
+        TestCase.assertEquals("100000\tINVALID_PHONE\tName100000: 123, name@email.com", lines.get(100_000));
+    }
+
+    @Test
+    public void parserReportsRejectedLines() throws IOException {
+        RegistryFileParser parser;
+        int parsedPeople;
+
+        try (RejectReport report = new RejectReport(reportPath)) {
+            parser = new RegistryFileParser("Name:Number,Email", loggedExceptions::add, report);
+            BufferedReader reader = new BufferedReader(new StringReader("Name:Number,Email\n"
+                    + "Anna:06301234567,anna@email.com\n"
+                    + "no separators here\n"
+                    + "Bela:123,invalid\n"));
+
+            parser.readFirstLine(reader);
+            parsedPeople = parser.readPeople(reader, (person, lineNumber) -> { });
+
+            TestCase.assertEquals(1, report.getRejectCount(RejectReason.MALFORMED_LINE));
+            TestCase.assertEquals(1, report.getRejectCount(RejectReason.INVALID_PHONE));
+            TestCase.assertEquals(1, report.getRejectCount(RejectReason.INVALID_EMAIL));
+        }
+
+        TestCase.assertEquals(2, parsedPeople);
+        TestCase.assertTrue(loggedExceptions.isEmpty());
+
+        List<String> lines = Files.readAllLines(reportPath);
+        TestCase.assertEquals(3, lines.size());
+        TestCase.assertEquals("3\tMALFORMED_LINE\tno separators here", lines.get(1));
+        TestCase.assertEquals("4\tINVALID_PHONE,INVALID_EMAIL\tBela:123,invalid", lines.get(2));
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void writerEndedWhenLastLinesCantBeSent() throws IOException {
+        RejectReport report = new RejectReport(reportPath);
+        for(int i = 1; i <= 10_000; i++) {
+            report.reject(i, RejectReason.INVALID_PHONE, "Name" + i + ": 123, name@email.com");
+        }
+
+        Thread.currentThread().interrupt();
+        try {
+            report.close();
+            TestCase.fail("The interruption should be reported");
+        } catch (InterruptedIOException e) {
+            TestCase.assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void reportNotCreatedWithoutRejectedLines() throws IOException {
+        try (RejectReport report = new RejectReport(reportPath)) {
+            TestCase.assertTrue(report.getRejectCounts().isEmpty());
+        }
+
+        TestCase.assertFalse(Files.exists(reportPath));
+    }
+}
@@ -0,0 +1,79 @@
+package person_registry.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the read and write throughput of the concurrent and the persistent registry,
+ * the reads are measured both on a single thread and in parallel on every processor core.
+ * It is not a unit test, it is started by hand: java person_registry.model.PersonRegistryBenchmark [people]
+ *
+ * Each measurement is repeated after a warm-up round, so the JIT compiled code is measured.
+ */
+public class PersonRegistryBenchmark {
+    private static final int DEFAULT_PEOPLE = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int peopleCount = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PEOPLE;
+        List<Person> people = createPeople(peopleCount);
+
+        System.out.println("People: " + peopleCount + ", rounds: " + ROUNDS);
+        for(int round = 0; round <= ROUNDS; round++) {
+            String label = (round == 0) ? "warm-up" : "round " + round;
+
+            measure(label, "concurrent", new PersonRegistry(false), people);
+            measure(label, "persistent", new PersonRegistry(true), people);
+        }
+    }
+
+    private static void measure(String label, String backend, PersonRegistry registry, List<Person> people) {
+        long start = System.nanoTime();
+        for(Person person : people) {
+            registry.put(person.getName(), person);
+        }
+        registry.commitVersion();
+        long writeNanos = System.nanoTime() - start;
+
+        long found = 0;
+        start = System.nanoTime();
+        for(int i = 0; i < people.size(); i++) {
+            Person person = people.get(ThreadLocalRandom.current().nextInt(people.size()));
+            if(registry.get(person.getName()) != null) {
+                found++;
+            }
+        }
+        long readNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long parallelFound = people.parallelStream().filter(person -> registry.containsKey(person.getName())).count();
+        long parallelReadNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        if(registry.isPersistent()) {
+            registry.undo();
+        }
+        long undoNanos = System.nanoTime() - start;
+
+        System.out.println(String.format("%-8s %-10s writes: %,12.0f ops/s  reads: %,12.0f ops/s"
+                        + "  parallel reads: %,12.0f ops/s  undo: %,8d us  (found %d/%d)",
+                label, backend, opsPerSecond(people.size(), writeNanos), opsPerSecond(people.size(), readNanos),
+                opsPerSecond(people.size(), parallelReadNanos), undoNanos / 1000, found, parallelFound));
+    }
+
+    private static double opsPerSecond(int operations, long nanos) {
+        return operations * 1_000_000_000.0 / nanos;
+    }
+
+    private static List<Person> createPeople(int count) {
+        List<Person> people = new ArrayList<>(count);
+
+        for(int i = 0; i < count; i++) {
+            people.add(Person.restore("Person " + i, String.format("0630/%03d-%04d", (i / 10_000) % 1000, i % 10_000),
+                    "person" + i + "@email.com"));
+        }
+
+        return people;
+    }
+}
@@ -0,0 +1,281 @@
+package person_registry.model;
+
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import person_registry.model.event.RegistryChangeEvent;
+import person_registry.model.event.RegistryEventBus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class PersonRegistryTest {
+    private PersonRegistry registry;
+    private BlockingQueue<RegistryChangeEvent> events;
+    private RegistryEventBus.Subscription subscription;
+
+    private String name = "Name";
+    private Person person = new Person(name, "06301234567", "person@email.com");
+
+    @Before
+    public void initialize() {
+        registry = new PersonRegistry();
+        events = new LinkedBlockingQueue<>();
+        subscription = registry.getEventBus().subscribe("test-subscriber", 100, events::addAll);
+    }
+
+    @Test
+    public void addedPersonPublished() throws InterruptedException {
+        registry.put(name, person);
+
+        RegistryChangeEvent event = nextEvent();
+
+        TestCase.assertEquals(RegistryChangeEvent.Type.ADDED, event.getType());
+        TestCase.assertNull(event.getOldPerson());
+        TestCase.assertSame(person, event.getNewPerson());
+    }
+
+    @Test
+    public void updatedPersonPublishedWithBothVersions() throws InterruptedException {
+        Person updatedPerson = new Person(name, "06207654321", "person@email.com");
+
+        registry.put(name, person);
+        registry.put(name, updatedPerson);
+        nextEvent();
+
+        RegistryChangeEvent event = nextEvent();
+
+        TestCase.assertEquals(RegistryChangeEvent.Type.UPDATED, event.getType());
+        TestCase.assertSame(person, event.getOldPerson());
+        TestCase.assertSame(updatedPerson, event.getNewPerson());
+    }
+
+    @Test
+    public void deletedPersonPublished() throws InterruptedException {
+        registry.put(name, person);
+        registry.remove(name);
+        nextEvent();
+
+        RegistryChangeEvent event = nextEvent();
+
+        TestCase.assertEquals(RegistryChangeEvent.Type.DELETED, event.getType());
+        TestCase.assertSame(person, event.getOldPerson());
+        TestCase.assertNull(registry.get(name));
+    }
+
+    @Test
+    public void eventsPublishedInSequence() throws InterruptedException {
+        List<Long> sequences = new ArrayList<>();
+
+        for(int i = 0; i < 1000; i++) {
+            registry.put(name + i, new Person(name + i, "06301234567", "person@email.com"));
+        }
+        for(int i = 0; i < 1000; i++) {
+            sequences.add(nextEvent().getSequence());
+        }
+
+        for(int i = 0; i < 1000; i++) {
+            TestCase.assertEquals((long) i, (long) sequences.get(i));
+        }
+        subscription.close();
+    }
+
+    @Test
+    public void persistentRegistryUndoAndRedo() {
+        PersonRegistry persistentRegistry = new PersonRegistry(true);
+        Person updatedPerson = new Person(name, "06207654321", "person@email.com");
+
+        persistentRegistry.put(name, person);
+        persistentRegistry.put("Other", new Person("Other", "06301234567", "other@email.com"));
+        persistentRegistry.commitVersion();
+        persistentRegistry.put(name, updatedPerson);
+        persistentRegistry.remove("Other");
+
+        TestCase.assertTrue(persistentRegistry.undo());
+        TestCase.assertSame(person, persistentRegistry.get(name));
+        TestCase.assertEquals(2, persistentRegistry.size());
+
+        TestCase.assertTrue(persistentRegistry.undo());
+        TestCase.assertEquals(0, persistentRegistry.size());
+
+        TestCase.assertTrue(persistentRegistry.redo());
+        TestCase.assertTrue(persistentRegistry.redo());
+        TestCase.assertSame(updatedPerson, persistentRegistry.get(name));
+        TestCase.assertFalse(persistentRegistry.containsKey("Other"));
+    }
+
+    @Test
+    public void persistentRegistryCheckpointAndSnapshot() {
+        PersonRegistry persistentRegistry = new PersonRegistry(true);
+
+        persistentRegistry.put(name, person);
+        persistentRegistry.checkpoint("loaded");
+        persistentRegistry.remove(name);
+
+        TestCase.assertEquals(Collections.singletonList("loaded"), persistentRegistry.getCheckpointNames());
+        TestCase.assertTrue(persistentRegistry.restoreCheckpoint("loaded"));
+        TestCase.assertSame(person, persistentRegistry.get(name));
+
+        TestCase.assertTrue(persistentRegistry.undo());
+        TestCase.assertNull(persistentRegistry.get(name));
+    }
+
+    @Test
+    public void undoPublishesDifferences() throws InterruptedException {
+        PersonRegistry persistentRegistry = new PersonRegistry(true);
+        BlockingQueue<RegistryChangeEvent> persistentEvents = new LinkedBlockingQueue<>();
+
+        try (RegistryEventBus.Subscription ignored = persistentRegistry.getEventBus().subscribe("undo-subscriber", 100,
+                persistentEvents::addAll)) {
+            persistentRegistry.put(name, person);
+            persistentRegistry.undo();
+
+            TestCase.assertEquals(RegistryChangeEvent.Type.ADDED, persistentEvents.poll(5, TimeUnit.SECONDS).getType());
+            RegistryChangeEvent event = persistentEvents.poll(5, TimeUnit.SECONDS);
+            TestCase.assertEquals(RegistryChangeEvent.Type.DELETED, event.getType());
+            TestCase.assertSame(person, event.getOldPerson());
+        }
+    }
+
+    @Test
+    public void putAllPublishesEveryPersonInOneVersion() throws InterruptedException {
+        PersonRegistry persistentRegistry = new PersonRegistry(true);
+        BlockingQueue<RegistryChangeEvent> persistentEvents = new LinkedBlockingQueue<>();
+        Map<String, Person> importedPeople = new LinkedHashMap<>();
+        importedPeople.put(name, new Person(name, "06207654321", "person@email.com"));
+        importedPeople.put("Other", new Person("Other", "06301234567", "other@email.com"));
+
+        try (RegistryEventBus.Subscription ignored = persistentRegistry.getEventBus().subscribe("import-subscriber", 100,
+                persistentEvents::addAll)) {
+            persistentRegistry.put(name, person);
+            persistentRegistry.commitVersion();
+            persistentRegistry.putAll(importedPeople);
+
+            TestCase.assertEquals(RegistryChangeEvent.Type.ADDED, persistentEvents.poll(5, TimeUnit.SECONDS).getType());
+            TestCase.assertEquals(RegistryChangeEvent.Type.UPDATED, persistentEvents.poll(5, TimeUnit.SECONDS).getType());
+            TestCase.assertEquals(RegistryChangeEvent.Type.ADDED, persistentEvents.poll(5, TimeUnit.SECONDS).getType());
+        }
+        TestCase.assertEquals(2, persistentRegistry.size());
+
+        TestCase.assertTrue(persistentRegistry.undo());
+        TestCase.assertSame(person, persistentRegistry.get(name));
+        TestCase.assertEquals(1, persistentRegistry.size());
+    }
+
+    @Test
+    public void putAllPublishesEveryPersonAtOnceInConcurrentRegistry() throws InterruptedException {
+        registry.put(name, person);
+        Map<String, Person> importedPeople = new LinkedHashMap<>();
+        importedPeople.put(name, new Person(name, "06207654321", "person@email.com"));
+        for(int i = 0; i < 50_000; i++) {
+            importedPeople.put("Imported" + i, Person.restore("Imported" + i, "0630/123-4567", "imported@email.com"));
+        }
+        List<Integer> partialSizes = Collections.synchronizedList(new ArrayList<>());
+        Thread reader = new Thread(() -> {
+            int size;
+            do {
+                size = registry.size();
+                if(size != 1 && size != 50_001) {
+                    partialSizes.add(size);
+                }
+            } while (size != 50_001);
+        });
+        reader.start();
+
+        registry.putAll(importedPeople);
+        reader.join(5_000);
+
+        TestCase.assertTrue(partialSizes.isEmpty());
+        TestCase.assertEquals(50_001, registry.size());
+        TestCase.assertSame(importedPeople.get(name), registry.get(name));
+        TestCase.assertEquals(RegistryChangeEvent.Type.ADDED, nextEvent().getType());
+        RegistryChangeEvent event = nextEvent();
+        TestCase.assertEquals(RegistryChangeEvent.Type.UPDATED, event.getType());
+        TestCase.assertSame(person, event.getOldPerson());
+    }
+
+    @Test
+    public void loadingRegistryLooksUpPeopleNotLoadedYet() {
+        Map<String, Person> source = new HashMap<>();
+        Person other = new Person("Other", "06301234567", "other@email.com");
+        source.put(name, person);
+        source.put("Other", other);
+        source.put("Deleted", new Person("Deleted", "06301234567", "deleted@email.com"));
+
+        registry.startLoading(source::get);
+
+        TestCase.assertTrue(registry.isLoading());
+        TestCase.assertSame(person, registry.get(name));
+        TestCase.assertTrue(registry.containsKey("Other"));
+        TestCase.assertEquals(0, registry.size());
+
+        Person updatedPerson = new Person(name, "06207654321", "person@email.com");
+        TestCase.assertSame(person, registry.put(name, updatedPerson));
+        TestCase.assertNotNull(registry.remove("Deleted"));
+
+        for(Person sourcePerson : source.values()) {
+            registry.load(sourcePerson);
+        }
+        registry.finishLoading();
+
+        TestCase.assertFalse(registry.isLoading());
+        TestCase.assertSame(updatedPerson, registry.get(name));
+        TestCase.assertSame(other, registry.get("Other"));
+        TestCase.assertNull(registry.get("Deleted"));
+        TestCase.assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void snapshotAndSubscriptionTakenTogether() throws InterruptedException {
+        BlockingQueue<RegistryChangeEvent> snapshotEvents = new LinkedBlockingQueue<>();
+        Person other = new Person("Other", "06301234567", "other@email.com");
+
+        registry.put(name, person);
+        try (PersonRegistry.SnapshotSubscription snapshot = registry.subscribeWithSnapshot("snapshot-subscriber", 100,
+                snapshotEvents::addAll)) {
+            registry.put("Other", other);
+
+            TestCase.assertTrue(snapshot.getPeople().contains(person));
+            RegistryChangeEvent event = snapshotEvents.poll(5, TimeUnit.SECONDS);
+            TestCase.assertEquals(snapshot.getNextSequence(), event.getSequence());
+            TestCase.assertSame(other, event.getNewPerson());
+        }
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void removingMissingPersonNotPublished() throws InterruptedException {
+        registry.remove(name);
+
+        TestCase.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void nothingToUndo() {
+        PersonRegistry persistentRegistry = new PersonRegistry(true);
+
+        TestCase.assertFalse(persistentRegistry.undo());
+        TestCase.assertFalse(persistentRegistry.redo());
+        TestCase.assertFalse(persistentRegistry.restoreCheckpoint("missing"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void concurrentRegistryCantUndo() {
+        registry.undo();
+    }
+
+    private RegistryChangeEvent nextEvent() throws InterruptedException {
+        RegistryChangeEvent event = events.poll(5, TimeUnit.SECONDS);
+        TestCase.assertNotNull(event);
+        return event;
+    }
+}
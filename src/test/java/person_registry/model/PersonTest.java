@@ -30,6 +30,15 @@ public class PersonTest {
         TestCase.assertEquals("Name", person.getName());
     }
 
+    @Test
+    public void phoneNumberWithLeadingZerosKeptIntact(){
+        String phone = "06300000001";
+
+        Person person = new Person(testName, phone, testEmail);
+
+        TestCase.assertEquals("0630/000-0001", person.getPhoneNumber());
+    }
+
     /* ***********************
      * Negative tests
      * ***********************/
@@ -0,0 +1,71 @@
+package person_registry.model.event;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RegistryEventBusTest {
+    @Test
+    public void eventsDeliveredInBatches() throws InterruptedException {
+        RegistryEventBus eventBus = new RegistryEventBus(1024);
+        CountDownLatch received = new CountDownLatch(500);
+        AtomicLong largestBatch = new AtomicLong();
+
+        try (RegistryEventBus.Subscription ignored = eventBus.subscribe("batch-subscriber", 64, events -> {
+            largestBatch.accumulateAndGet(events.size(), Math::max);
+            events.forEach(event -> received.countDown());
+        })) {
+            for(int i = 0; i < 500; i++) {
+                eventBus.publish(RegistryChangeEvent.Type.DELETED, null, null);
+            }
+
+            TestCase.assertTrue(received.await(5, TimeUnit.SECONDS));
+            TestCase.assertTrue(largestBatch.get() <= 64);
+        }
+    }
+
+    @Test
+    public void slowSubscriberDoesNotBlockPublishing() throws InterruptedException {
+        RegistryEventBus eventBus = new RegistryEventBus(16);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch lost = new CountDownLatch(1);
+        AtomicLong lostEvents = new AtomicLong();
+
+        try (RegistryEventBus.Subscription ignored = eventBus.subscribe("slow-subscriber", 4, new RegistryChangeListener() {
+            @Override
+            public void onChanges(List<RegistryChangeEvent> events) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onChangesLost(long count) {
+                lostEvents.addAndGet(count);
+                lost.countDown();
+            }
+        })) {
+            eventBus.publish(RegistryChangeEvent.Type.DELETED, null, null);
+            Thread.sleep(50);
+            for(int i = 0; i < 1000; i++) {
+                eventBus.publish(RegistryChangeEvent.Type.DELETED, null, null);
+            }
+            release.countDown();
+
+            TestCase.assertTrue(lost.await(5, TimeUnit.SECONDS));
+            TestCase.assertTrue(lostEvents.get() > 0);
+            TestCase.assertEquals(1001L, eventBus.getNextSequence());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePowerOfTwo() {
+        new RegistryEventBus(1000);
+    }
+}
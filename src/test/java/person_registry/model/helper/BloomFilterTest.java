@@ -0,0 +1,57 @@
+package person_registry.model.helper;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class BloomFilterTest {
+    @Test
+    public void addedValuesAreAlwaysFound(){
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        for(int i = 0; i < 10_000; i++) {
+            filter.add("Name" + i);
+        }
+
+        for(int i = 0; i < 10_000; i++) {
+            TestCase.assertTrue(filter.mightContain("Name" + i));
+        }
+    }
+
+    @Test
+    public void addReportsNewValues(){
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        TestCase.assertTrue(filter.add("Name"));
+        TestCase.assertFalse(filter.add("Name"));
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void valuesWithSameHashCodeAreDistinguished(){
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        TestCase.assertEquals("Aa".hashCode(), "BB".hashCode());
+        filter.add("Aa");
+
+        TestCase.assertFalse(filter.mightContain("BB"));
+    }
+
+    @Test
+    public void falsePositiveRateIsLow(){
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        int falsePositives = 0;
+
+        for(int i = 0; i < 10_000; i++) {
+            filter.add("Name" + i);
+        }
+        for(int i = 0; i < 10_000; i++) {
+            if(filter.mightContain("Other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        TestCase.assertTrue(falsePositives < 300);
+    }
+}
@@ -0,0 +1,131 @@
+package person_registry.model.helper;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PersistentHashMapTest {
+    @Test
+    public void putAndGet() {
+        PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+
+        for(int i = 0; i < 10_000; i++) {
+            map = map.put("key" + i, i);
+        }
+
+        TestCase.assertEquals(10_000, map.size());
+        for(int i = 0; i < 10_000; i++) {
+            TestCase.assertEquals(Integer.valueOf(i), map.get("key" + i));
+        }
+    }
+
+    @Test
+    public void earlierVersionsUnchanged() {
+        PersistentHashMap<String, String> empty = PersistentHashMap.empty();
+        PersistentHashMap<String, String> first = empty.put("Anna", "first");
+        PersistentHashMap<String, String> second = first.put("Anna", "second").put("Bela", "second");
+        PersistentHashMap<String, String> third = second.remove("Anna");
+
+        TestCase.assertTrue(empty.isEmpty());
+        TestCase.assertEquals("first", first.get("Anna"));
+        TestCase.assertNull(first.get("Bela"));
+        TestCase.assertEquals("second", second.get("Anna"));
+        TestCase.assertEquals(2, second.size());
+        TestCase.assertNull(third.get("Anna"));
+        TestCase.assertEquals(1, third.size());
+    }
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+
+        for(int i = 0; i < 50_000; i++) {
+            Integer key = random.nextInt(5_000);
+            if(random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+
+        TestCase.assertEquals(expected.size(), map.size());
+        Map<Integer, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        TestCase.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void collidingKeysStoredTogether() {
+        PersistentHashMap<CollidingKey, String> map = PersistentHashMap.empty();
+
+        map = map.put(new CollidingKey("a"), "a").put(new CollidingKey("b"), "b").put(new CollidingKey("c"), "c");
+        TestCase.assertEquals(3, map.size());
+        TestCase.assertEquals("b", map.get(new CollidingKey("b")));
+
+        map = map.remove(new CollidingKey("b")).remove(new CollidingKey("a"));
+        TestCase.assertEquals(1, map.size());
+        TestCase.assertNull(map.get(new CollidingKey("b")));
+        TestCase.assertEquals("c", map.get(new CollidingKey("c")));
+    }
+
+    @Test
+    public void diffReportsOnlyChanges() {
+        PersistentHashMap<String, String> original = PersistentHashMap.empty();
+        for(int i = 0; i < 1_000; i++) {
+            original = original.put("key" + i, "value" + i);
+        }
+        PersistentHashMap<String, String> modified = original.put("key1", "changed").remove("key2").put("new", "added");
+
+        List<String> differences = new ArrayList<>();
+        original.diff(modified, (key, value, otherValue) -> differences.add(key + ":" + value + "->" + otherValue));
+
+        TestCase.assertEquals(3, differences.size());
+        TestCase.assertTrue(differences.contains("key1:value1->changed"));
+        TestCase.assertTrue(differences.contains("key2:value2->null"));
+        TestCase.assertTrue(differences.contains("new:null->added"));
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void unchangedMapReturned() {
+        String value = "value";
+        PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty().put("key", value);
+
+        TestCase.assertSame(map, map.put("key", value));
+        TestCase.assertSame(map, map.remove("missing"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullValueRejected() {
+        PersistentHashMap.<String, String>empty().put("key", null);
+    }
+
+    private static class CollidingKey {
+        private final String value;
+
+        CollidingKey(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).value.equals(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+}
@@ -70,6 +70,18 @@ public class PhoneNumberValidatorTest {
         }
     }
 
+    @Test
+    public void formattedPhoneNumberSplitAndJoinedProperly(){
+        String formattedPhoneNumber = "+3630/012-0045";
+
+        String dialingCode = PhoneNumberValidator.getDialingCode(formattedPhoneNumber);
+        int subscriberNumber = PhoneNumberValidator.getSubscriberNumber(formattedPhoneNumber);
+
+        TestCase.assertEquals("+3630", dialingCode);
+        TestCase.assertEquals(120045, subscriberNumber);
+        TestCase.assertEquals(formattedPhoneNumber, PhoneNumberValidator.joinPhoneNumber(dialingCode, subscriberNumber));
+    }
+
     /* ***********************
      * Negative tests
      * ***********************/
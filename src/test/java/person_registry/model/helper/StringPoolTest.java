@@ -0,0 +1,74 @@
+package person_registry.model.helper;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StringPoolTest {
+    @Test
+    public void equalValuesShareOneInstance(){
+        String first = StringPool.intern(new String("pool-test.com"));
+        String second = StringPool.intern(new String("pool-test.com"));
+
+        TestCase.assertSame(first, second);
+    }
+
+    @Test
+    public void nullIsNotPooled(){
+        TestCase.assertNull(StringPool.intern(null));
+    }
+
+    @Test
+    public void dialingCodeIsPooled(){
+        String first = PhoneNumberValidator.getDialingCode(new String("0620/123-4567"));
+        String second = PhoneNumberValidator.getDialingCode(new String("0620/765-4321"));
+
+        TestCase.assertSame(first, second);
+    }
+
+    @Test
+    public void repeatedComponentsOfManyPeopleArePooledOnce(){
+        String[] dialingCodes = {"0620", "0630", "0670", "+3620", "+3630"};
+        String[] domains = {"many-people-a.com", "many-people-b.com", "many-people-c.com"};
+        List<Person> people = new ArrayList<>();
+
+        for(int i = 0; i < 10_000; i++) {
+            people.add(new Person("Person" + i, dialingCodes[i % dialingCodes.length] + String.format("%07d", i),
+                    "person" + i + "@" + domains[i % domains.length]));
+        }
+        int sizeAfterFirstRound = StringPool.size();
+
+        for(int i = 10_000; i < 20_000; i++) {
+            people.add(new Person("Person" + i, dialingCodes[i % dialingCodes.length] + String.format("%07d", i),
+                    "person" + i + "@" + domains[i % domains.length]));
+        }
+
+        TestCase.assertTrue(StringPool.size() <= sizeAfterFirstRound);
+        TestCase.assertEquals(20_000, people.size());
+    }
+
+    @Test
+    public void unusedValuesAreRemoved() throws InterruptedException {
+        List<String> keptValues = new ArrayList<>();
+        for(int i = 0; i < 10_000; i++) {
+            String value = StringPool.intern("unused-value-" + i + ".com");
+            if(i % 100 == 0) {
+                keptValues.add(value);
+            }
+        }
+        int sizeWithEveryValue = StringPool.size();
+
+        for(int i = 0; i < 50 && StringPool.size() > sizeWithEveryValue - 9_000; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        TestCase.assertTrue(StringPool.size() <= sizeWithEveryValue - 9_000);
+        for(String value : keptValues) {
+            TestCase.assertSame(value, StringPool.intern(new String(value)));
+        }
+    }
+}
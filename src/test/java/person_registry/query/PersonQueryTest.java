@@ -0,0 +1,107 @@
+package person_registry.query;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import person_registry.model.Person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PersonQueryTest {
+    private List<Person> people = Arrays.asList(
+            new Person("John Smith", "06301234567", "john@gmail.com"),
+            new Person("Mary Jones", "+36301112222", "mary@GMAIL.hu"),
+            new Person("Peter Kovacs", "06207654321", "peter@freemail.hu"),
+            new Person("Anna Nagy", "0630123", "anna@gmail.com"),
+            new Person("Eva Toth", "06701234567", "invalid"));
+
+    @Test
+    public void dialingCodeAndDomainCombined(){
+        List<Person> result = PersonQuery.parse("phone:0630 email:gmail.com").find(people);
+
+        TestCase.assertEquals(1, result.size());
+        TestCase.assertEquals("John Smith", result.get(0).getName());
+    }
+
+    @Test
+    public void domainWithoutTopLevelDomainMatchesEvery(){
+        TestCase.assertEquals(3, PersonQuery.parse("email:gmail").count(people));
+    }
+
+    @Test
+    public void domainMatchedInPooledDomainIgnoringCase(){
+        TestCase.assertEquals(1, PersonQuery.parse("email:gmail.HU").count(people));
+        TestCase.assertEquals(0, PersonQuery.parse("email:gmai").count(people));
+        TestCase.assertEquals(0, PersonQuery.parse("email:gmail.com.hu").count(people));
+        TestCase.assertEquals(4, PersonQuery.parse("email:valid").count(people));
+    }
+
+    @Test
+    public void phonePrefixIgnoresFormatting(){
+        TestCase.assertEquals(1, new PersonQuery().phonePrefix("0630/1234").count(people));
+        TestCase.assertEquals(1, new PersonQuery().phonePrefix("+3630").count(people));
+    }
+
+    @Test
+    public void phonePrefixMatchedInSubscriberNumber(){
+        List<Person> leadingZeros = Arrays.asList(
+                new Person("Zero One", "06300012345", "zero@gmail.com"),
+                new Person("Zero Two", "06300099999", "zero2@gmail.com"));
+
+        TestCase.assertEquals(2, new PersonQuery().phonePrefix("063000").count(leadingZeros));
+        TestCase.assertEquals(1, new PersonQuery().phonePrefix("0630/001-2345").count(leadingZeros));
+        TestCase.assertEquals(1, new PersonQuery().phonePrefix("+36301112222").count(people));
+    }
+
+    @Test
+    public void invalidDataFound(){
+        TestCase.assertEquals("Anna Nagy", PersonQuery.parse("phone:invalid").find(people).get(0).getName());
+        TestCase.assertEquals("Eva Toth", PersonQuery.parse("email:invalid").find(people).get(0).getName());
+        TestCase.assertEquals(4, PersonQuery.parse("phone:valid").count(people));
+    }
+
+    @Test
+    public void nameSearchIgnoresCase(){
+        TestCase.assertEquals(1, PersonQuery.parse("name:SMITH").count(people));
+    }
+
+    @Test
+    public void limitAndCountOnlyParsed(){
+        PersonQuery query = PersonQuery.parse("phone:valid limit:2 count");
+
+        TestCase.assertTrue(query.isCountOnly());
+        TestCase.assertEquals(2, query.find(people).size());
+    }
+
+    @Test
+    public void largeRegistryScannedInParallel(){
+        List<Person> manyPeople = new ArrayList<>();
+        for(int i = 0; i < 100_000; i++) {
+            manyPeople.add(new Person("Person" + i, ((i % 2 == 0) ? "0630" : "0620") + String.format("%07d", i), "p" + i + "@gmail.com"));
+        }
+        List<Person> found = Collections.synchronizedList(new ArrayList<>());
+
+        PersonQuery query = PersonQuery.parse("phone:0630 limit:100000");
+        query.forEach(manyPeople, found::add);
+
+        TestCase.assertEquals(50_000, query.count(manyPeople));
+        TestCase.assertEquals(50_000, found.size());
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void tooLongOrNonDigitPhonePrefixNotMatched(){
+        TestCase.assertEquals(0, new PersonQuery().phonePrefix("063012345678").count(people));
+        TestCase.assertEquals(0, new PersonQuery().phonePrefix("0630x").count(people));
+        TestCase.assertEquals(0, new PersonQuery().phonePrefix("0630/124").count(people));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownConditionRejected(){
+        PersonQuery.parse("age:30");
+    }
+}
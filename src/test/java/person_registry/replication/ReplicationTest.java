@@ -0,0 +1,112 @@
+package person_registry.replication;
+
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import person_registry.model.Person;
+import person_registry.model.PersonRegistry;
+import person_registry.model.event.RegistryChangeEvent;
+import person_registry.model.event.RegistryEventBus;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BooleanSupplier;
+
+public class ReplicationTest {
+    private PersonRegistry primaryRegistry;
+    private PersonRegistry replicaRegistry;
+    private BlockingQueue<RegistryChangeEvent> replicaEvents;
+    private RegistryEventBus.Subscription replicaSubscription;
+    private ReplicationServer server;
+    private ReplicationClient client;
+
+    @Before
+    public void initialize() throws IOException {
+        primaryRegistry = new PersonRegistry();
+        replicaRegistry = new PersonRegistry();
+
+        primaryRegistry.put("Anna", new Person("Anna", "06201234567", "anna@example.com"));
+        primaryRegistry.put("Bela", new Person("Bela", "06301234567", "bela@example.com"));
+        replicaRegistry.put("Stale", new Person("Stale", "06701234567", "stale@example.com"));
+        replicaRegistry.put("Anna", new Person("Anna", "06201234567", "anna@example.com"));
+        replicaEvents = new LinkedBlockingQueue<>();
+        replicaSubscription = replicaRegistry.getEventBus().subscribe("test-subscriber", 100, replicaEvents::addAll);
+
+        server = new ReplicationServer(primaryRegistry, 0);
+        server.start();
+        client = new ReplicationClient(replicaRegistry, "localhost", server.getPort());
+        client.start();
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        replicaSubscription.close();
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void snapshotReplacesReplicaRegistry() throws InterruptedException {
+        TestCase.assertTrue(waitFor(client::isReplicating));
+
+        TestCase.assertEquals(2, replicaRegistry.size());
+        TestCase.assertFalse(replicaRegistry.containsKey("Stale"));
+        TestCase.assertEquals("0620/123-4567", replicaRegistry.get("Anna").getPhoneNumber());
+        TestCase.assertEquals("bela@example.com", replicaRegistry.get("Bela").getEmail());
+        TestCase.assertEquals(1, server.getReplicaCount());
+    }
+
+    @Test
+    public void modificationsAreStreamed() throws InterruptedException {
+        TestCase.assertTrue(waitFor(client::isReplicating));
+
+        primaryRegistry.put("Csaba", new Person("Csaba", "06209876543", "csaba@example.com"));
+        primaryRegistry.put("Anna", new Person("Anna", "06201111111", "anna@example.com"));
+        primaryRegistry.remove("Bela");
+
+        TestCase.assertTrue(waitFor(() -> replicaRegistry.containsKey("Csaba") && !replicaRegistry.containsKey("Bela")
+                && "0620/111-1111".equals(replicaRegistry.get("Anna").getPhoneNumber())));
+        TestCase.assertTrue(waitFor(() -> client.getSequenceLag() == 0));
+        TestCase.assertEquals(2, replicaRegistry.size());
+    }
+
+    /* ***********************
+     * Negative tests
+     * ***********************/
+    @Test
+    public void unchangedPeopleNotUpdatedBySnapshot() throws InterruptedException {
+        TestCase.assertTrue(waitFor(client::isReplicating));
+        TestCase.assertTrue(waitFor(() -> replicaEvents.size() >= 2));
+        Thread.sleep(100);
+
+        for(RegistryChangeEvent event : replicaEvents) {
+            TestCase.assertFalse(event.getName().equals("Anna"));
+        }
+    }
+
+
+    @Test
+    public void replicaKeepsStateAfterPrimaryStops() throws InterruptedException, IOException {
+        TestCase.assertTrue(waitFor(client::isReplicating));
+
+        server.close();
+
+        TestCase.assertTrue(waitFor(() -> !client.isReplicating()));
+        TestCase.assertEquals(2, replicaRegistry.size());
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (System.currentTimeMillis() < deadline) {
+            if(condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+
+        return condition.getAsBoolean();
+    }
+}